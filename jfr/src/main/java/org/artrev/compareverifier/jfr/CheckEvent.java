@@ -0,0 +1,40 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.artrev.compareverifier.Check")
+@Label("Verification Check")
+@Category("CompareVerifier")
+@Description("A single check of a compareTo verification")
+final class CheckEvent extends Event {
+    @Label("Rule")
+    String rule;
+
+    @Label("Check")
+    String check;
+
+    @Label("Passed")
+    boolean passed;
+
+    @Label("Failure")
+    String failure;
+}
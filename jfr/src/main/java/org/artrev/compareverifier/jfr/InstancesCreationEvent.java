@@ -0,0 +1,39 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("org.artrev.compareverifier.InstancesCreation")
+@Label("Instances Creation")
+@Category("CompareVerifier")
+@Description("A single call of a VerificationInstancesCreator")
+final class InstancesCreationEvent extends Event {
+    @Label("Type")
+    String type;
+
+    @Label("Instances")
+    int instances;
+
+    @Label("Creation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long creationTime;
+}
@@ -0,0 +1,141 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.jfr;
+
+import jdk.jfr.EventType;
+import org.artrev.compareverifier.VerificationCheck;
+import org.artrev.compareverifier.VerificationListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emits Java Flight Recorder events for a verification, so it can be profiled
+ * together with the CPU and allocation samples in a single recording:
+ * <ul>
+ * <li>{@code org.artrev.compareverifier.Check} for every check</li>
+ * <li>{@code org.artrev.compareverifier.InstancesCreation} for every call of
+ * an instances creator</li>
+ * <li>{@code org.artrev.compareverifier.SlowComparison} for every
+ * {@code compareTo} call taking at least the given threshold</li>
+ * </ul>
+ * The comparisons are timed only while the slow comparison event is enabled
+ * in a running recording, so there is no cost when not recording.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * ComparableVerifier
+ *     .forInstances(lesserCreator, equalCreator, greaterCreator)
+ *     .listener(new JfrVerificationListener())
+ *     .verify();
+ * }
+ * </pre>
+ */
+public final class JfrVerificationListener extends VerificationListener {
+    /**
+     * Default threshold of the slow comparison event, one millisecond.
+     */
+    public static final long DEFAULT_SLOW_COMPARISON_NANOS = 1000000L;
+
+    private static final EventType SLOW_COMPARISON = EventType.getEventType(SlowComparisonEvent.class);
+
+    private final long slowComparisonNanos;
+    private final Map<VerificationCheck, CheckEvent> running = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a listener reporting comparisons taking at least
+     * {@link #DEFAULT_SLOW_COMPARISON_NANOS}.
+     */
+    public JfrVerificationListener() {
+        this(DEFAULT_SLOW_COMPARISON_NANOS);
+    }
+
+    /**
+     * Creates a listener reporting comparisons taking at least the given time.
+     *
+     * @param slowComparisonNanos not negative threshold in nanoseconds.
+     */
+    public JfrVerificationListener(final long slowComparisonNanos) {
+        if (slowComparisonNanos < 0)
+            throw new IllegalArgumentException("Slow comparison threshold cannot be negative!");
+
+        this.slowComparisonNanos = slowComparisonNanos;
+    }
+
+    @Override
+    public void instancesCreated(final String type, final int instances, final long elapsedNanos) {
+        final InstancesCreationEvent event = new InstancesCreationEvent();
+        if (!event.isEnabled())
+            return;
+
+        event.type = type;
+        event.instances = instances;
+        event.creationTime = elapsedNanos;
+        event.commit();
+    }
+
+    @Override
+    public void checkStarted(final VerificationCheck check) {
+        final CheckEvent event = new CheckEvent();
+        if (!event.isEnabled())
+            return;
+
+        event.rule = check.rule();
+        event.check = check.name();
+        event.begin();
+        running.put(check, event);
+    }
+
+    @Override
+    public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+        final CheckEvent event = running.remove(check);
+        if (null == event)
+            return;
+
+        event.passed = true;
+        event.commit();
+    }
+
+    @Override
+    public void checkFailed(final VerificationCheck check, final Throwable failure) {
+        final CheckEvent event = running.remove(check);
+        if (null == event)
+            return;
+
+        event.passed = false;
+        event.failure = String.valueOf(failure.getMessage());
+        event.commit();
+    }
+
+    @Override
+    public long slowComparisonThresholdNanos() {
+        return SLOW_COMPARISON.isEnabled() ? slowComparisonNanos : -1;
+    }
+
+    @Override
+    public void slowComparison(final VerificationCheck check,
+                               final Object first,
+                               final Object second,
+                               final long elapsedNanos) {
+        final SlowComparisonEvent event = new SlowComparisonEvent();
+        event.check = check.name();
+        event.first = String.valueOf(first);
+        event.second = String.valueOf(second);
+        event.comparisonTime = elapsedNanos;
+        event.commit();
+    }
+}
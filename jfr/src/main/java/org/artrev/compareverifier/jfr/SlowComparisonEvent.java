@@ -0,0 +1,42 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("org.artrev.compareverifier.SlowComparison")
+@Label("Slow Comparison")
+@Category("CompareVerifier")
+@Description("A single compareTo call that took longer than the threshold")
+final class SlowComparisonEvent extends Event {
+    @Label("Check")
+    String check;
+
+    @Label("First")
+    String first;
+
+    @Label("Second")
+    String second;
+
+    @Label("Comparison Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long comparisonTime;
+}
@@ -0,0 +1,97 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.artrev.compareverifier.ComparableVerifier;
+import org.artrev.compareverifier.VerificationInstancesCreator;
+import org.artrev.compareverifier.VerificationInstancesCreators;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JfrVerificationListenerTest {
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final VerificationInstancesCreator<Integer> lesser =
+            VerificationInstancesCreators.from(0, 1);
+    private final VerificationInstancesCreator<Integer> equal =
+            VerificationInstancesCreators.from(42, 42);
+    private final VerificationInstancesCreator<Integer> greater =
+            VerificationInstancesCreators.from(100, 101);
+
+    @Test
+    public void should_record_events_of_verification() throws IOException {
+        // given:
+        final Path file = temporaryFolder.newFile("verification.jfr").toPath();
+        final ComparableVerifier<Integer> verifier = ComparableVerifier
+                .forInstances(lesser, equal, greater)
+                .listener(new JfrVerificationListener(0));
+
+        // when:
+        try (Recording recording = new Recording()) {
+            recording.enable(CheckEvent.class);
+            recording.enable(InstancesCreationEvent.class);
+            recording.enable(SlowComparisonEvent.class);
+            recording.start();
+            verifier.verify();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then:
+        final Map<String, Integer> counts = new HashMap<>();
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        for (final RecordedEvent event : events) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+        }
+        assertEquals(Integer.valueOf(3), counts.get("org.artrev.compareverifier.InstancesCreation"));
+        assertEquals(Integer.valueOf(verifier.checks().size()), counts.get("org.artrev.compareverifier.Check"));
+        assertTrue(counts.get("org.artrev.compareverifier.SlowComparison") > 0);
+    }
+
+    @Test
+    public void should_not_time_comparisons_when_not_recording() {
+        // expect:
+        assertEquals(-1, new JfrVerificationListener(0).slowComparisonThresholdNanos());
+    }
+
+    @Test
+    public void should_throw_exception_when_threshold_is_negative() {
+        // given:
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Slow comparison threshold cannot be negative!");
+
+        // when:
+        new JfrVerificationListener(-1);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.junit5;
+
+import org.artrev.compareverifier.ComparableVerifier;
+import org.artrev.compareverifier.VerificationCheck;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.DynamicTest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Turns the verification of {@link ComparableVerifier} into JUnit 5 dynamic
+ * tests, one container per rule and one test per block of the pair space, so
+ * failures are reported per rule and the blocks can be spread across cores
+ * by the parallel execution of the JUnit Platform.
+ * <p>
+ * Meant to be returned from a {@code @TestFactory} method:
+ * <pre>
+ * &#64;TestFactory
+ * Stream&lt;DynamicNode&gt; compareTo() {
+ *     return ComparableVerifierTests.dynamicTests(
+ *             ComparableVerifier.forInstances(lesser, equal, greater)
+ *     );
+ * }
+ * </pre>
+ * The allocation budget, throughput and stress checks measure the running
+ * JVM, so they are best not run in parallel with other tests.
+ */
+public final class ComparableVerifierTests {
+    private ComparableVerifierTests() {
+    }
+
+    /**
+     * Returns the checks of the given verifier as dynamic tests, with the
+     * pair space split into blocks of {@link ComparableVerifier#DEFAULT_BLOCK_ROWS}
+     * rows.
+     *
+     * @param verifier configured verifier.
+     * @return one dynamic container per verified rule.
+     */
+    public static Stream<DynamicNode> dynamicTests(final ComparableVerifier<?> verifier) {
+        return dynamicTests(verifier, ComparableVerifier.DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Returns the checks of the given verifier as dynamic tests, with the
+     * pair space split into blocks of at most the given number of rows.
+     *
+     * @param verifier  configured verifier.
+     * @param blockRows positive maximal number of rows in a block.
+     * @return one dynamic container per verified rule.
+     */
+    public static Stream<DynamicNode> dynamicTests(final ComparableVerifier<?> verifier,
+                                                   final int blockRows) {
+        if (null == verifier)
+            throw new IllegalArgumentException("ComparableVerifier cannot be null!");
+
+        final Map<String, List<DynamicTest>> rules = new LinkedHashMap<>();
+        for (final VerificationCheck check : verifier.checks(blockRows)) {
+            rules.computeIfAbsent(check.rule(), rule -> new ArrayList<>())
+                    .add(DynamicTest.dynamicTest(check.name(), check::run));
+        }
+
+        return rules.entrySet().stream()
+                .map(rule -> DynamicContainer.dynamicContainer(rule.getKey(), rule.getValue()));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.junit5;
+
+import org.artrev.compareverifier.ComparableVerifier;
+import org.artrev.compareverifier.VerificationInstancesCreator;
+import org.artrev.compareverifier.VerificationInstancesCreators;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ComparableVerifierTestsTest {
+    private static final VerificationInstancesCreator<Integer> LESSER =
+            VerificationInstancesCreators.from(0, 1, 2, 3, 4);
+    private static final VerificationInstancesCreator<Integer> EQUAL =
+            VerificationInstancesCreators.from(42, 42);
+    private static final VerificationInstancesCreator<Integer> GREATER =
+            VerificationInstancesCreators.from(100, 101);
+
+    @TestFactory
+    Stream<DynamicNode> should_verify_integers() {
+        return ComparableVerifierTests.dynamicTests(
+                ComparableVerifier.forInstances(LESSER, EQUAL, GREATER), 2
+        );
+    }
+
+    @Test
+    void should_group_blocks_by_rule() {
+        // when:
+        final List<DynamicNode> rules = ComparableVerifierTests
+                .dynamicTests(ComparableVerifier.forInstances(LESSER, EQUAL, GREATER), 2)
+                .collect(Collectors.toList());
+
+        // then:
+        final DynamicContainer transitivity = (DynamicContainer) rules.get(rules.size() - 1);
+        assertEquals("transitivity", transitivity.getDisplayName());
+        assertEquals(
+                "transitivity rows 0-1, transitivity rows 2-3, transitivity rows 4-4",
+                transitivity.getChildren()
+                        .map(DynamicNode::getDisplayName)
+                        .collect(Collectors.joining(", "))
+        );
+    }
+
+    @Test
+    void should_report_violation_in_dynamic_test() {
+        // given:
+        final VerificationInstancesCreator<Integer> wrongGreater =
+                VerificationInstancesCreators.from(-1);
+        final List<DynamicNode> rules = ComparableVerifierTests
+                .dynamicTests(ComparableVerifier.forInstances(LESSER, EQUAL, wrongGreater))
+                .collect(Collectors.toList());
+        final DynamicContainer transitivity = (DynamicContainer) rules.get(rules.size() - 1);
+        final DynamicTest block = (DynamicTest) transitivity.getChildren().findFirst().get();
+
+        // expect:
+        assertThrows(AssertionError.class, () -> block.getExecutable().execute());
+    }
+}
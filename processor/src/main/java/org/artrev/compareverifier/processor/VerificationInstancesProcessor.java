@@ -0,0 +1,341 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.processor;
+
+import org.artrev.compareverifier.EqualInstances;
+import org.artrev.compareverifier.GreaterInstances;
+import org.artrev.compareverifier.LesserInstances;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import static java.lang.String.format;
+
+/**
+ * Generates, at compile time, the {@link org.artrev.compareverifier.VerificationInstancesCreator}s
+ * of every type with factories annotated with {@link LesserInstances},
+ * {@link EqualInstances} and {@link GreaterInstances}, so a verification
+ * starts without any reflection or class path scanning.
+ * <p>
+ * For a type {@code Money} the class {@code MoneyVerificationInstances} is
+ * generated in the same package, with the {@code lesser()}, {@code equal()}
+ * and {@code greater()} creators calling the annotated factories and with
+ * {@code verifier()} returning a {@link org.artrev.compareverifier.ComparableVerifier}
+ * already wired with them:
+ * <pre>
+ * {@code
+ * MoneyVerificationInstances.verifier().verify();
+ * }
+ * </pre>
+ * The factories have to be static, take no parameters, return a {@link List}
+ * or a {@code VerificationInstancesCreator} and be accessible from the package
+ * of the verified type, and so do the classes declaring them. The verified
+ * type has to be accessible from its package too, and cannot be generic,
+ * e.g. {@code Box<T>}, since the generated creators cannot name its type
+ * arguments.
+ * <p>
+ * The processor is shipped apart from the library, which does not register
+ * it, so it never runs in the compilations that only use the library. It is
+ * registered as a service of its own artifact, which only has to be on the
+ * annotation processor path of the compilation.
+ */
+public final class VerificationInstancesProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "VerificationInstances";
+    private static final String CREATOR = "org.artrev.compareverifier.VerificationInstancesCreator";
+    private static final String[] KINDS = {"lesser", "equal", "greater"};
+    @SuppressWarnings("unchecked")
+    private static final List<Class<? extends Annotation>> ANNOTATIONS = Arrays.asList(
+            LesserInstances.class, EqualInstances.class, GreaterInstances.class
+    );
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> types = new HashSet<String>();
+        for (final Class<? extends Annotation> annotation : ANNOTATIONS) {
+            types.add(annotation.getCanonicalName());
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+                           final RoundEnvironment environment) {
+        // verified type -> lesser, equal and greater factories
+        final Map<TypeElement, ExecutableElement[]> factories = new LinkedHashMap<TypeElement, ExecutableElement[]>();
+        for (int kind = 0; kind < ANNOTATIONS.size(); kind++) {
+            for (final Element element : environment.getElementsAnnotatedWith(ANNOTATIONS.get(kind))) {
+                if (element.getKind() != ElementKind.METHOD)
+                    continue;
+
+                final ExecutableElement factory = (ExecutableElement) element;
+                final TypeElement type = verifiedType(factory, ANNOTATIONS.get(kind));
+                if (!isValid(factory, type, kind))
+                    continue;
+
+                ExecutableElement[] kinds = factories.get(type);
+                if (null == kinds) {
+                    kinds = new ExecutableElement[ANNOTATIONS.size()];
+                    factories.put(type, kinds);
+                }
+                if (null != kinds[kind]) {
+                    error(factory, "Type %s has more than one @%s factory!",
+                            type.getQualifiedName(), ANNOTATIONS.get(kind).getSimpleName());
+                    continue;
+                }
+                kinds[kind] = factory;
+            }
+        }
+
+        for (final Map.Entry<TypeElement, ExecutableElement[]> type : factories.entrySet()) {
+            generate(type.getKey(), type.getValue());
+        }
+        return true;
+    }
+
+    private TypeElement verifiedType(final ExecutableElement factory,
+                                     final Class<? extends Annotation> annotation) {
+        for (final AnnotationMirror mirror : factory.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(annotation.getCanonicalName()))
+                continue;
+
+            for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("value")) {
+                    final TypeMirror type = (TypeMirror) value.getValue().getValue();
+                    if (type.getKind() == TypeKind.DECLARED)
+                        return (TypeElement) ((DeclaredType) type).asElement();
+                }
+            }
+        }
+        // the default is the class declaring the factory
+        return (TypeElement) factory.getEnclosingElement();
+    }
+
+    private boolean isValid(final ExecutableElement factory, final TypeElement type, final int kind) {
+        final String annotation = ANNOTATIONS.get(kind).getSimpleName();
+        if (null == comparedType(type)) {
+            error(factory, "Factory annotated with @%s supplies %s which is not Comparable of itself or of a super class!",
+                    annotation, type.getQualifiedName());
+            return false;
+        }
+        if (hasTypeVariables(comparedType(type))) {
+            error(factory, "Factory annotated with @%s supplies %s which is generic, creators can only be generated for types without type variables!",
+                    annotation, type.getQualifiedName());
+            return false;
+        }
+        if (!factory.getModifiers().contains(Modifier.STATIC) || !factory.getParameters().isEmpty()) {
+            error(factory, "Factory annotated with @%s has to be static and take no parameters!", annotation);
+            return false;
+        }
+        if (!isAssignable(factory.getReturnType(), List.class.getName())
+                && !isAssignable(factory.getReturnType(), CREATOR)) {
+            error(factory, "Factory annotated with @%s has to return a List or a VerificationInstancesCreator!", annotation);
+            return false;
+        }
+        final boolean accessible = factory.getModifiers().contains(Modifier.PUBLIC)
+                || (!factory.getModifiers().contains(Modifier.PRIVATE)
+                && packageOf(factory).equals(packageOf(type)));
+        if (!accessible) {
+            error(factory, "Factory annotated with @%s has to be accessible from package %s!",
+                    annotation, packageOf(type));
+            return false;
+        }
+        final TypeElement declaring = (TypeElement) factory.getEnclosingElement();
+        if (!isAccessible(declaring, packageOf(type))) {
+            error(factory, "Factory annotated with @%s is declared in %s which is not accessible from package %s!",
+                    annotation, declaring.getQualifiedName(), packageOf(type));
+            return false;
+        }
+        final TypeElement compared = (TypeElement) ((DeclaredType) comparedType(type)).asElement();
+        if (!isAccessible(type, packageOf(type)) || !isAccessible(compared, packageOf(type))) {
+            error(factory, "Factory annotated with @%s supplies %s which is not accessible from package %s!",
+                    annotation, type.getQualifiedName(), packageOf(type));
+            return false;
+        }
+        return true;
+    }
+
+    // whether the generated class can name the type, which takes the type and
+    // all the classes enclosing it to be accessible
+    private boolean isAccessible(final TypeElement type, final String fromPackage) {
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS)
+            return false;
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+            if (!element.getModifiers().contains(Modifier.PUBLIC) && !packageOf(element).equals(fromPackage))
+                return false;
+        }
+        return true;
+    }
+
+    // the type argument of the Comparable implemented by the type, e.g. Money for Money
+    private TypeMirror comparedType(final TypeElement type) {
+        final TypeElement comparable = processingEnv.getElementUtils().getTypeElement(Comparable.class.getName());
+        for (final TypeMirror supertype : allSupertypes(type.asType())) {
+            if (supertype.getKind() != TypeKind.DECLARED)
+                continue;
+
+            final DeclaredType declared = (DeclaredType) supertype;
+            if (!declared.asElement().equals(comparable))
+                continue;
+            if (declared.getTypeArguments().size() != 1)
+                return null;
+
+            final TypeMirror argument = declared.getTypeArguments().get(0);
+            return argument.getKind() == TypeKind.DECLARED
+                    && processingEnv.getTypeUtils().isAssignable(type.asType(), argument) ? argument : null;
+        }
+        return null;
+    }
+
+    // whether the type refers to a type variable, e.g. Box<T>, or to a wildcard
+    private static boolean hasTypeVariables(final TypeMirror type) {
+        if (type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD)
+            return true;
+        if (type.getKind() == TypeKind.ARRAY)
+            return hasTypeVariables(((ArrayType) type).getComponentType());
+        if (type.getKind() != TypeKind.DECLARED)
+            return false;
+
+        final DeclaredType declared = (DeclaredType) type;
+        for (final TypeMirror argument : declared.getTypeArguments()) {
+            if (hasTypeVariables(argument))
+                return true;
+        }
+        return hasTypeVariables(declared.getEnclosingType());
+    }
+
+    private List<TypeMirror> allSupertypes(final TypeMirror type) {
+        final List<TypeMirror> supertypes = new ArrayList<TypeMirror>();
+        supertypes.add(type);
+        for (int index = 0; index < supertypes.size(); index++) {
+            supertypes.addAll(processingEnv.getTypeUtils().directSupertypes(supertypes.get(index)));
+        }
+        return supertypes;
+    }
+
+    private boolean isAssignable(final TypeMirror type, final String target) {
+        final TypeElement element = processingEnv.getElementUtils().getTypeElement(target);
+        return null != element && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type),
+                processingEnv.getTypeUtils().erasure(element.asType())
+        );
+    }
+
+    private String packageOf(final Element element) {
+        final PackageElement enclosing = processingEnv.getElementUtils().getPackageOf(element);
+        return enclosing.getQualifiedName().toString();
+    }
+
+    private void generate(final TypeElement type, final ExecutableElement[] factories) {
+        for (int kind = 0; kind < factories.length; kind++) {
+            if (null == factories[kind]) {
+                error(type, "Type %s has no @%s factory!", type.getQualifiedName(), ANNOTATIONS.get(kind).getSimpleName());
+                return;
+            }
+        }
+
+        final String packageName = packageOf(type);
+        final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + SUFFIX;
+        final String compared = comparedType(type).toString();
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append(format("package %s;%n%n", packageName));
+        source.append(format("/**%n"))
+                .append(format(" * Instances creators of {@link %s}, generated from its annotated factories.%n", type.getQualifiedName()))
+                .append(format(" */%n"))
+                .append(format("public final class %s {%n", simpleName))
+                .append(format("    private %s() {%n", simpleName))
+                .append(format("        throw new IllegalStateException(\"%s should not be instantiated!\");%n", simpleName))
+                .append(format("    }%n"));
+        for (int kind = 0; kind < factories.length; kind++) {
+            final ExecutableElement factory = factories[kind];
+            final String call = format("%s.%s()",
+                    ((TypeElement) factory.getEnclosingElement()).getQualifiedName(), factory.getSimpleName());
+            final String instances = isAssignable(factory.getReturnType(), CREATOR) ? call + ".create()" : call;
+            source.append(format("%n"))
+                    .append(format("    public static %s<%s> %s() {%n", CREATOR, compared, KINDS[kind]))
+                    .append(format("        return new %s<%s>() {%n", CREATOR, compared))
+                    .append(format("            @Override%n"))
+                    .append(format("            public java.util.List<%s> create() {%n", compared))
+                    // null is passed on, so the verifier reports the factory
+                    .append(format("                final java.util.List<? extends %s> instances = %s;%n", compared, instances))
+                    .append(format("                return null == instances ? null : java.util.Collections.<%s>unmodifiableList(instances);%n",
+                            compared))
+                    .append(format("            }%n"))
+                    .append(format("        };%n"))
+                    .append(format("    }%n"));
+        }
+        source.append(format("%n"))
+                .append(format("    public static org.artrev.compareverifier.ComparableVerifier<%s> verifier() {%n", compared))
+                .append(format("        return org.artrev.compareverifier.ComparableVerifier.forInstances(lesser(), equal(), greater());%n"))
+                .append(format("    }%n"))
+                .append(format("}%n"));
+
+        final String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            final Writer writer = processingEnv.getFiler()
+                    .createSourceFile(qualifiedName, type, factories[0], factories[1], factories[2])
+                    .openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (final IOException exc) {
+            error(type, "%s could not be generated: %s", qualifiedName, exc.getMessage());
+        }
+    }
+
+    private void error(final Element element, final String message, final Object... arguments) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, format(message, arguments), element);
+    }
+}
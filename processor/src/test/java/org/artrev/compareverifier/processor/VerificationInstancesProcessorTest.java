@@ -0,0 +1,235 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.processor;
+
+import org.artrev.compareverifier.ComparableVerifier;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VerificationInstancesProcessorTest {
+    private static final String HEADER = ""
+            + "package com.example;\n"
+            + "import java.util.*;\n"
+            + "import org.artrev.compareverifier.*;\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private JavaCompiler compiler;
+    private File output;
+
+    @Before
+    public void setUp() throws IOException {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        // compiler is only available when running on a JDK
+        Assume.assumeNotNull(compiler);
+        output = temporaryFolder.newFolder("classes");
+    }
+
+    @Test
+    public void should_generate_creators_and_verifier() throws Exception {
+        // given:
+        final JavaFileObject source = source("Money", HEADER
+                + "public final class Money implements Comparable<Money> {\n"
+                + "    final int cents;\n"
+                + "    Money(int cents) { this.cents = cents; }\n"
+                + "    @LesserInstances static List<Money> lesser() { return Arrays.asList(new Money(1)); }\n"
+                + "    @EqualInstances static List<Money> equal() { return Arrays.asList(new Money(5), new Money(5)); }\n"
+                + "    @GreaterInstances static VerificationInstancesCreator<Money> greater() {\n"
+                + "        return VerificationInstancesCreators.from(new Money(9));\n"
+                + "    }\n"
+                + "    public int compareTo(Money other) { return cents - other.cents; }\n"
+                + "    public boolean equals(Object other) { return other instanceof Money && cents == ((Money) other).cents; }\n"
+                + "    public int hashCode() { return cents; }\n"
+                + "}\n");
+
+        // when:
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(source);
+
+        // then:
+        assertEquals(Arrays.asList(), errors);
+        final URLClassLoader classLoader =
+                new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        final ComparableVerifier<?> verifier = (ComparableVerifier<?>) classLoader
+                .loadClass("com.example.MoneyVerificationInstances")
+                .getMethod("verifier")
+                .invoke(null);
+        verifier.verify();
+    }
+
+    @Test
+    public void should_pass_null_instances_on_to_verifier() throws Exception {
+        // given:
+        final JavaFileObject source = source("Money", HEADER
+                + "public final class Money implements Comparable<Money> {\n"
+                + "    @LesserInstances static List<Money> lesser() { return null; }\n"
+                + "    @EqualInstances static List<Money> equal() { return null; }\n"
+                + "    @GreaterInstances static List<Money> greater() { return null; }\n"
+                + "    public int compareTo(Money other) { return 0; }\n"
+                + "}\n");
+        assertEquals(Arrays.asList(), compile(source));
+        final URLClassLoader classLoader =
+                new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        final ComparableVerifier<?> verifier = (ComparableVerifier<?>) classLoader
+                .loadClass("com.example.MoneyVerificationInstances")
+                .getMethod("verifier")
+                .invoke(null);
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("cannot return null instances!");
+
+        // when:
+        verifier.verify();
+    }
+
+    @Test
+    public void should_report_generic_type() throws IOException {
+        // given:
+        final JavaFileObject source = source("Box", HEADER
+                + "public final class Box<T> implements Comparable<Box<T>> {\n"
+                + "    @LesserInstances static List<Box<String>> lesser() { return null; }\n"
+                + "    public int compareTo(Box<T> other) { return 0; }\n"
+                + "}\n");
+
+        // when:
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(source);
+
+        // then:
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains(
+                "Factory annotated with @LesserInstances supplies com.example.Box which is generic,"
+                        + " creators can only be generated for types without type variables!"
+        ));
+    }
+
+    @Test
+    public void should_report_invalid_factory() throws IOException {
+        // given:
+        final JavaFileObject source = source("Money", HEADER
+                + "public final class Money implements Comparable<Money> {\n"
+                + "    @LesserInstances List<Money> lesser() { return null; }\n"
+                + "    public int compareTo(Money other) { return 0; }\n"
+                + "}\n");
+
+        // when:
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(source);
+
+        // then:
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains(
+                "Factory annotated with @LesserInstances has to be static and take no parameters!"
+        ));
+    }
+
+    @Test
+    public void should_report_inaccessible_type() throws IOException {
+        // given:
+        final JavaFileObject source = source("Wallet", HEADER
+                + "public final class Wallet {\n"
+                + "    private static final class Money implements Comparable<Money> {\n"
+                + "        @LesserInstances static List<Money> lesser() { return null; }\n"
+                + "        public int compareTo(Money other) { return 0; }\n"
+                + "    }\n"
+                + "}\n");
+
+        // when:
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(source);
+
+        // then:
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains(
+                "Factory annotated with @LesserInstances is declared in com.example.Wallet.Money"
+                        + " which is not accessible from package com.example!"
+        ));
+    }
+
+    @Test
+    public void should_report_missing_factory() throws IOException {
+        // given:
+        final JavaFileObject source = source("Money", HEADER
+                + "public final class Money implements Comparable<Money> {\n"
+                + "    @LesserInstances static List<Money> lesser() { return null; }\n"
+                + "    @EqualInstances static List<Money> equal() { return null; }\n"
+                + "    public int compareTo(Money other) { return 0; }\n"
+                + "}\n");
+
+        // when:
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(source);
+
+        // then:
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(null).contains(
+                "Type com.example.Money has no @GreaterInstances factory!"
+        ));
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compile(final JavaFileObject... sources) throws IOException {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        compiler.getTask(
+                null,
+                null,
+                diagnostics,
+                Arrays.asList(
+                        "-d", output.getPath(),
+                        "-classpath", System.getProperty("java.class.path"),
+                        "-processor", VerificationInstancesProcessor.class.getName()
+                ),
+                null,
+                Arrays.asList(sources)
+        ).call();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<Diagnostic<? extends JavaFileObject>>();
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                errors.add(diagnostic);
+        }
+        return errors;
+    }
+
+    private static JavaFileObject source(final String name, final String content) {
+        return new SimpleJavaFileObject(URI.create("string:///com/example/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * <p>
+ * The bean is not a part of the Java SE API. Use {@link #create()}, which
+ * returns null when it is not available, instead of touching this class
+ * directly.
+ */
+final class AllocationMeter {
+    private final com.sun.management.ThreadMXBean bean;
+    private final long threadId;
+
+    private AllocationMeter(final com.sun.management.ThreadMXBean bean) {
+        this.bean = bean;
+        this.threadId = Thread.currentThread().getId();
+    }
+
+    /**
+     * Returns a meter for the current thread or null if the JVM does not
+     * support measuring the allocated bytes.
+     */
+    static AllocationMeter create() {
+        try {
+            final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean))
+                return null;
+
+            final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (!allocationBean.isThreadAllocatedMemorySupported())
+                return null;
+            if (!allocationBean.isThreadAllocatedMemoryEnabled())
+                allocationBean.setThreadAllocatedMemoryEnabled(true);
+            return new AllocationMeter(allocationBean);
+        } catch (final LinkageError error) {
+            // com.sun.management is missing on this JVM
+            return null;
+        } catch (final UnsupportedOperationException exc) {
+            return null;
+        }
+    }
+
+    long allocatedBytes() {
+        return bean.getThreadAllocatedBytes(threadId);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Defines a factory that creates the instances used by verification in
+ * {@link ComparableVerifier} in the background, e.g. by decoding fixtures on
+ * an executor.
+ *
+ * @param <A> type of the returned instances
+ * @see ComparableVerifier#forAsyncInstances(AsyncVerificationInstancesCreator, AsyncVerificationInstancesCreator, AsyncVerificationInstancesCreator)
+ * @see VerificationInstancesCreators#fromAsync(AsyncVerificationInstancesCreator)
+ */
+public interface AsyncVerificationInstancesCreator<A> {
+    /**
+     * Starts the creation of the instances and returns without waiting for
+     * it. The returned future should not complete with a null List or a List
+     * that contains null values.
+     *
+     * @return future list of instances.
+     */
+    Future<List<A>> create();
+}
@@ -0,0 +1,36 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Sink for the results of measured calls. Every consumed value contributes to
+ * a state that is eventually published through a volatile field, so the JIT
+ * compiler cannot prove the calls producing the values are dead code and
+ * eliminate them.
+ */
+final class Blackhole {
+    private int accumulator = 17;
+    @SuppressWarnings("unused")
+    private volatile int published;
+
+    void consume(final int value) {
+        accumulator = 31 * accumulator + value;
+    }
+
+    void publish() {
+        published = accumulator;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Allows to abort a running verification cleanly, e.g. from an IDE or a CI
+ * wrapper. The verification polls the token before every check and after
+ * every row of the pair space and throws a {@link CancellationException} once
+ * the token is cancelled. A single token can be shared by many verifications.
+ *
+ * @see ComparableVerifier#cancellation(CancellationToken)
+ */
+public final class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Requests cancellation of all the verifications using this token. Can be
+     * called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns true if {@link #cancel()} was called.
+     *
+     * @return true if the verification should stop.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void throwIfCancelled() {
+        if (cancelled)
+            throw new CancellationException("Verification was cancelled!");
+    }
+}
@@ -0,0 +1,129 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of a single running check. The checks report every
+ * completed row, which polls the cancellation token and from time to time
+ * notifies the listener. The checks also make their comparisons through it,
+ * so they are timed when the listener asks for slow comparisons, or answered
+ * from a cache while a counterexample is shrunk. Safe to use from many threads.
+ */
+final class CheckProgress {
+    private static final long REPORT_INTERVAL_NANOS = 100000000L;
+
+    private final VerificationCheck check;
+    private final long totalRows;
+    private final VerificationListener listener;
+    private final CancellationToken cancellation;
+    private final long slowComparisonNanos;
+    private final ComparisonCache cache;
+    private final long start = System.nanoTime();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong comparisons = new AtomicLong();
+    private final AtomicLong nextReport = new AtomicLong(start + REPORT_INTERVAL_NANOS);
+
+    CheckProgress(final VerificationCheck check,
+                  final long totalRows,
+                  final VerificationListener listener,
+                  final CancellationToken cancellation) {
+        this(check, totalRows, listener, cancellation, null);
+    }
+
+    CheckProgress(final VerificationCheck check,
+                  final long totalRows,
+                  final VerificationListener listener,
+                  final CancellationToken cancellation,
+                  final ComparisonCache cache) {
+        this.check = check;
+        this.totalRows = totalRows;
+        this.listener = listener;
+        this.cancellation = cancellation;
+        this.slowComparisonNanos = null == listener ? -1 : listener.slowComparisonThresholdNanos();
+        this.cache = cache;
+    }
+
+    <A extends Comparable<A>> int compare(final A a, final A b) {
+        if (null != cache)
+            return cache.compare(a, b);
+        if (slowComparisonNanos < 0)
+            return a.compareTo(b);
+
+        final long start = System.nanoTime();
+        final int result = a.compareTo(b);
+        final long elapsed = System.nanoTime() - start;
+        if (elapsed >= slowComparisonNanos)
+            listener.slowComparison(check, a, b, elapsed);
+        return result;
+    }
+
+    <A extends Comparable<A>> int sign(final A a, final A b) {
+        try {
+            return (int) Math.signum(compare(a, b));
+        } catch (final Exception exc) {
+            return SignMatrix.THREW;
+        }
+    }
+
+    void cancellationPoint() {
+        if (null != cancellation)
+            cancellation.throwIfCancelled();
+    }
+
+    void row(final long rowComparisons) {
+        rows(1, rowComparisons);
+    }
+
+    void rows(final long completedRows, final long rowsComparisons) {
+        cancellationPoint();
+        rows.addAndGet(completedRows);
+        comparisons.addAndGet(rowsComparisons);
+        if (null == listener)
+            return;
+
+        final long now = System.nanoTime();
+        final long next = nextReport.get();
+        // only the thread that moves the deadline reports
+        if (now - next >= 0 && nextReport.compareAndSet(next, now + REPORT_INTERVAL_NANOS))
+            listener.progress(snapshot(now));
+    }
+
+    VerificationCheck check() {
+        return check;
+    }
+
+    long totalRows() {
+        return totalRows;
+    }
+
+    long completedRows() {
+        return rows.get();
+    }
+
+    long comparisons() {
+        return comparisons.get();
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    private VerificationProgress snapshot(final long now) {
+        return new VerificationProgress(check, rows.get(), totalRows, comparisons.get(), now - start);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The few facts about a class that {@link ComparableDiscovery} needs, read
+ * straight from the class file without loading the class. Only the constant
+ * pool and the header following it are parsed, fields, methods and attributes
+ * are skipped. The constant pool strings are compared as raw bytes and only
+ * the class names are decoded, which keeps scanning of large class paths fast.
+ */
+final class ClassFileSummary {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private final int accessFlags;
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces;
+    private final Set<String> mentioned;
+
+    private ClassFileSummary(final int accessFlags,
+                             final String name,
+                             final String superName,
+                             final List<String> interfaces,
+                             final Set<String> mentioned) {
+        this.accessFlags = accessFlags;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.mentioned = mentioned;
+    }
+
+    /**
+     * Parses the class file, looking for the given type descriptors in the
+     * constant pool on the way.
+     *
+     * @param bytes       content of the class file.
+     * @param descriptors ASCII type descriptors, e.g. {@code Ljava/lang/Deprecated;}.
+     * @return summary of the class.
+     */
+    static ClassFileSummary parse(final byte[] bytes, final List<String> descriptors) {
+        try {
+            final byte[][] wanted = new byte[descriptors.size()][];
+            for (int index = 0; index < wanted.length; index++) {
+                wanted[index] = descriptors.get(index).getBytes("US-ASCII");
+            }
+            return parse(bytes, descriptors, wanted);
+        } catch (final UnsupportedEncodingException exc) {
+            throw new IllegalStateException(exc);
+        } catch (final ArrayIndexOutOfBoundsException exc) {
+            throw new IllegalStateException("Class file is truncated!", exc);
+        }
+    }
+
+    private static ClassFileSummary parse(final byte[] bytes,
+                                          final List<String> descriptors,
+                                          final byte[][] wanted) throws UnsupportedEncodingException {
+        if (readInt(bytes, 0) != MAGIC)
+            throw new IllegalStateException("Not a class file, the magic number is missing!");
+
+        // magic, minor and major version
+        int position = 8;
+        final int constants = readUnsignedShort(bytes, position);
+        position += 2;
+        // offset of the length of every Utf8 constant and the name index of every Class constant
+        final int[] utf8 = new int[constants];
+        final int[] classNames = new int[constants];
+        final Set<String> mentioned = new HashSet<String>();
+        for (int index = 1; index < constants; index++) {
+            final int tag = bytes[position] & 0xFF;
+            position++;
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[index] = position;
+                    final int length = readUnsignedShort(bytes, position);
+                    for (int descriptor = 0; descriptor < wanted.length; descriptor++) {
+                        if (matches(bytes, position + 2, length, wanted[descriptor]))
+                            mentioned.add(descriptors.get(descriptor));
+                    }
+                    position += 2 + length;
+                    break;
+                case 7: // Class
+                    classNames[index] = readUnsignedShort(bytes, position);
+                    position += 2;
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    position += 2;
+                    break;
+                case 15: // MethodHandle
+                    position += 3;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    position += 4;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    position += 8;
+                    // takes two entries of the constant pool
+                    index++;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown constant pool tag " + tag + "!");
+            }
+        }
+
+        final int accessFlags = readUnsignedShort(bytes, position);
+        final String name = className(bytes, utf8, classNames, readUnsignedShort(bytes, position + 2));
+        final String superName = className(bytes, utf8, classNames, readUnsignedShort(bytes, position + 4));
+        final int count = readUnsignedShort(bytes, position + 6);
+        final List<String> interfaces = new ArrayList<String>(count);
+        for (int index = 0; index < count; index++) {
+            interfaces.add(className(bytes, utf8, classNames, readUnsignedShort(bytes, position + 8 + 2 * index)));
+        }
+        return new ClassFileSummary(accessFlags, name, superName, Collections.unmodifiableList(interfaces), mentioned);
+    }
+
+    private static boolean matches(final byte[] bytes, final int offset, final int length, final byte[] wanted) {
+        if (length != wanted.length)
+            return false;
+        for (int index = 0; index < length; index++) {
+            if (bytes[offset + index] != wanted[index])
+                return false;
+        }
+        return true;
+    }
+
+    private static String className(final byte[] bytes,
+                                    final int[] utf8,
+                                    final int[] classNames,
+                                    final int index) throws UnsupportedEncodingException {
+        // java/lang/Object has no super class
+        if (index == 0)
+            return null;
+
+        final int offset = utf8[classNames[index]];
+        // modified UTF-8 only differs for the null and supplementary characters, not used in class names
+        return new String(bytes, offset + 2, readUnsignedShort(bytes, offset), "UTF-8").replace('/', '.');
+    }
+
+    private static int readUnsignedShort(final byte[] bytes, final int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return (readUnsignedShort(bytes, offset) << 16) | readUnsignedShort(bytes, offset + 2);
+    }
+
+    /**
+     * @return binary name of the class, e.g. {@code java.util.Map$Entry}.
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * @return true if the class is neither an interface nor abstract.
+     */
+    boolean isConcrete() {
+        return (accessFlags & (ACC_INTERFACE | ACC_ABSTRACT)) == 0;
+    }
+
+    /**
+     * @return binary name of the super class or null for {@link Object}.
+     */
+    String superName() {
+        return superName;
+    }
+
+    /**
+     * @return binary names of the directly implemented interfaces.
+     */
+    List<String> interfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Returns true if the class file mentions the given type descriptor, e.g.
+     * because an annotation of that type is used somewhere in the class. Only
+     * the descriptors given to {@link #parse(byte[], List)} are known.
+     *
+     * @param descriptor type descriptor, e.g. {@code Ljava/lang/Deprecated;}.
+     * @return true if the descriptor is in the constant pool.
+     */
+    boolean mentions(final String descriptor) {
+        return mentioned.contains(descriptor);
+    }
+}
@@ -0,0 +1,517 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.lang.String.format;
+
+/**
+ * Finds the classes implementing {@link Comparable} in the given packages
+ * and verifies all of them in a single parallel run, so there is no need for
+ * a hand written {@link ComparableVerifier} test for every class.
+ * <p>
+ * The instances of a verified type are supplied by static methods annotated
+ * with {@link LesserInstances}, {@link EqualInstances} and
+ * {@link GreaterInstances}, declared either in the type itself or, with the
+ * type given as the annotation value, in any other class of the scanned
+ * packages, e.g. a test fixture.
+ * <p>
+ * The class files are scanned without loading the classes, only the classes
+ * declaring the annotated factories are loaded, so even large class paths
+ * are scanned quickly. Both directories and jar files are scanned, including
+ * the sub packages. The packages are located through the class loader, so a
+ * jar file has to contain the directory entries, which the usual build tools
+ * write.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * public final class Money implements Comparable<Money> {
+ *     ...
+ *     @LesserInstances
+ *     static List<Money> lesser() {
+ *         return Arrays.asList(Money.of("1.00"), Money.of("2.00"));
+ *     }
+ *     ...
+ * }
+ *
+ * ComparableDiscovery
+ *     .forPackages("com.example.domain")
+ *     .verifyAll();
+ * }
+ * </pre>
+ *
+ * @see ComparableVerifier
+ */
+public final class ComparableDiscovery {
+    private static final String COMPARABLE = Comparable.class.getName();
+    @SuppressWarnings("unchecked")
+    private static final List<Class<? extends Annotation>> FACTORY_ANNOTATIONS = Arrays.asList(
+            LesserInstances.class, EqualInstances.class, GreaterInstances.class
+    );
+    private static final List<String> FACTORY_DESCRIPTORS = descriptors(FACTORY_ANNOTATIONS);
+
+    private final List<String> packages;
+    private ClassLoader classLoader;
+    private int threads = ParallelRows.defaultThreads();
+    private boolean requireFactories = false;
+
+    private ComparableDiscovery(final List<String> packages) {
+        this.packages = packages;
+        this.classLoader = Thread.currentThread().getContextClassLoader();
+        if (null == classLoader)
+            classLoader = ComparableDiscovery.class.getClassLoader();
+    }
+
+    /**
+     * Creates a discovery scanning the given packages and their sub packages.
+     *
+     * @param packages names of the scanned packages, e.g. {@code "com.example"}.
+     * @return instance of {@link ComparableDiscovery}
+     */
+    public static ComparableDiscovery forPackages(final String... packages) {
+        if (null == packages || packages.length == 0)
+            throw new IllegalArgumentException("At least one package has to be given!");
+        for (final String name : packages) {
+            if (null == name || name.length() == 0)
+                throw new IllegalArgumentException("Package name cannot be null or empty!");
+        }
+
+        return new ComparableDiscovery(Arrays.asList(packages.clone()));
+    }
+
+    /**
+     * Sets the class loader used to find and load the classes, by default the
+     * context class loader of the current thread.
+     *
+     * @param classLoader class loader of the scanned classes.
+     * @return instance of {@link ComparableDiscovery}
+     */
+    public ComparableDiscovery classLoader(final ClassLoader classLoader) {
+        if (null == classLoader)
+            throw new IllegalArgumentException("ClassLoader cannot be null!");
+
+        this.classLoader = classLoader;
+        return this;
+    }
+
+    /**
+     * Sets the number of types verified at the same time, by default the
+     * number of available processors.
+     *
+     * @param threads positive number of threads.
+     * @return instance of {@link ComparableDiscovery}
+     */
+    public ComparableDiscovery threads(final int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads has to be positive!");
+
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Causes that {@link #verifyAll()} fails for every discovered concrete
+     * {@link Comparable} class that has no instance factories, so no class
+     * silently escapes the verification.
+     *
+     * @param requireFactories true if every class has to have the factories.
+     * @return instance of {@link ComparableDiscovery}
+     */
+    public ComparableDiscovery requireFactories(final boolean requireFactories) {
+        this.requireFactories = requireFactories;
+        return this;
+    }
+
+    /**
+     * Returns the names of the concrete classes in the scanned packages that
+     * implement {@link Comparable}, directly or through a super class or an
+     * interface.
+     *
+     * @return sorted binary names of the classes.
+     */
+    public List<String> comparableTypes() {
+        final Map<String, ClassFileSummary> classes = scan();
+        final Map<String, Boolean> comparable = new HashMap<String, Boolean>();
+        final List<String> names = new ArrayList<String>();
+        for (final ClassFileSummary summary : classes.values()) {
+            if (summary.isConcrete() && isComparable(summary.name(), classes, comparable))
+                names.add(summary.name());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Verifies every type with instance factories found in the scanned
+     * packages with a {@link ComparableVerifier}, many types at the same time.
+     * All the types are verified even if some of them fail.
+     *
+     * @throws AssertionError when any of the types fails the verification,
+     *                        describing the failures of all of them.
+     */
+    public void verifyAll() {
+        final Map<String, ClassFileSummary> classes = scan();
+        final Map<Class<?>, Method[]> factories = findFactories(classes);
+        final List<String> missing = requireFactories
+                ? withoutFactories(classes, factories)
+                : Collections.<String>emptyList();
+        if (factories.isEmpty() && missing.isEmpty())
+            throw new IllegalStateException(format("No instance factories found in packages %s!", packages));
+
+        final List<Map.Entry<Class<?>, Method[]>> types = new ArrayList<Map.Entry<Class<?>, Method[]>>(factories.entrySet());
+        final String[] errors = new String[types.size()];
+        final Throwable[] causes = new Throwable[types.size()];
+        ParallelRows.run(types.size(), threads, new ParallelRows.RowTask() {
+            @Override
+            public void run(final int row) {
+                try {
+                    verify(types.get(row).getValue());
+                } catch (final AssertionError error) {
+                    errors[row] = error.getMessage();
+                    causes[row] = error;
+                } catch (final RuntimeException exc) {
+                    errors[row] = exc.toString();
+                    causes[row] = exc;
+                }
+            }
+        });
+
+        final Map<String, String> failures = new TreeMap<String, String>();
+        for (final String name : missing) {
+            failures.put(name, "has no instance factories!");
+        }
+        Throwable cause = null;
+        for (int row = 0; row < types.size(); row++) {
+            if (null != errors[row]) {
+                failures.put(types.get(row).getKey().getName(), errors[row]);
+                if (null == cause)
+                    cause = causes[row];
+            }
+        }
+        if (failures.isEmpty())
+            return;
+
+        final StringBuilder message = new StringBuilder(
+                format("%d of %d Comparable types failed verification!", failures.size(), types.size() + missing.size())
+        );
+        for (final Map.Entry<String, String> failure : failures.entrySet()) {
+            message.append(format("%n  %s: %s", failure.getKey(), failure.getValue()));
+        }
+        final AssertionError error = new AssertionError(message.toString());
+        if (null != cause)
+            error.initCause(cause);
+        throw error;
+    }
+
+    private List<String> withoutFactories(final Map<String, ClassFileSummary> classes,
+                                          final Map<Class<?>, Method[]> factories) {
+        final Map<String, Boolean> comparable = new HashMap<String, Boolean>();
+        final List<String> missing = new ArrayList<String>();
+        for (final ClassFileSummary summary : classes.values()) {
+            if (summary.isConcrete()
+                    && isComparable(summary.name(), classes, comparable)
+                    && !factories.containsKey(loadClass(summary.name())))
+                missing.add(summary.name());
+        }
+        return missing;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void verify(final Method[] factories) {
+        ComparableVerifier.forInstances(
+                (VerificationInstancesCreator) creator(factories[0]),
+                (VerificationInstancesCreator) creator(factories[1]),
+                (VerificationInstancesCreator) creator(factories[2])
+        ).verify();
+    }
+
+    private static VerificationInstancesCreator<Object> creator(final Method factory) {
+        return new VerificationInstancesCreator<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public List<Object> create() {
+                final Object instances = invoke(factory);
+                if (instances instanceof VerificationInstancesCreator)
+                    return ((VerificationInstancesCreator<Object>) instances).create();
+                return (List<Object>) instances;
+            }
+        };
+    }
+
+    private static Object invoke(final Method factory) {
+        try {
+            return factory.invoke(null);
+        } catch (final IllegalAccessException exc) {
+            throw new IllegalStateException(format("Factory %s is not accessible!", factory), exc);
+        } catch (final InvocationTargetException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(format("Factory %s failed!", factory), cause);
+        }
+    }
+
+    // verified type -> lesser, equal and greater factories
+    private Map<Class<?>, Method[]> findFactories(final Map<String, ClassFileSummary> classes) {
+        final Map<Class<?>, Method[]> factories = new LinkedHashMap<Class<?>, Method[]>();
+        for (final ClassFileSummary summary : classes.values()) {
+            if (mentionsFactoryAnnotation(summary))
+                addFactories(factories, loadClass(summary.name()));
+        }
+        requireAllKinds(factories);
+        return factories;
+    }
+
+    // verifies the types supplied by the factories of a single class, with no scanning
+    static void verifyFactories(final Class<?> provider) {
+        final Map<Class<?>, Method[]> factories = new LinkedHashMap<Class<?>, Method[]>();
+        addFactories(factories, provider);
+        if (factories.isEmpty())
+            throw new IllegalStateException(format("Class %s declares no instance factories!", provider.getName()));
+
+        requireAllKinds(factories);
+        for (final Method[] kinds : factories.values()) {
+            verify(kinds);
+        }
+    }
+
+    private static void addFactories(final Map<Class<?>, Method[]> factories,
+                                     final Class<?> declaring) {
+        for (final Method method : declaring.getDeclaredMethods()) {
+            for (int kind = 0; kind < FACTORY_ANNOTATIONS.size(); kind++) {
+                final Annotation annotation = method.getAnnotation(FACTORY_ANNOTATIONS.get(kind));
+                if (null != annotation)
+                    addFactory(factories, verifiedType(annotation, method), kind, method);
+            }
+        }
+    }
+
+    private static void requireAllKinds(final Map<Class<?>, Method[]> factories) {
+        for (final Map.Entry<Class<?>, Method[]> type : factories.entrySet()) {
+            for (int kind = 0; kind < FACTORY_ANNOTATIONS.size(); kind++) {
+                if (null == type.getValue()[kind])
+                    throw new IllegalStateException(format("Type %s has no @%s factory!",
+                            type.getKey().getName(), FACTORY_ANNOTATIONS.get(kind).getSimpleName()));
+            }
+        }
+    }
+
+    private static List<String> descriptors(final List<Class<? extends Annotation>> annotations) {
+        final List<String> descriptors = new ArrayList<String>(annotations.size());
+        for (final Class<? extends Annotation> annotation : annotations) {
+            descriptors.add("L" + annotation.getName().replace('.', '/') + ";");
+        }
+        return descriptors;
+    }
+
+    private static boolean mentionsFactoryAnnotation(final ClassFileSummary summary) {
+        for (final String descriptor : FACTORY_DESCRIPTORS) {
+            if (summary.mentions(descriptor))
+                return true;
+        }
+        return false;
+    }
+
+    private static Class<?> verifiedType(final Annotation annotation, final Method method) {
+        final Class<?> type;
+        if (annotation instanceof LesserInstances)
+            type = ((LesserInstances) annotation).value();
+        else if (annotation instanceof EqualInstances)
+            type = ((EqualInstances) annotation).value();
+        else
+            type = ((GreaterInstances) annotation).value();
+        return type == void.class ? method.getDeclaringClass() : type;
+    }
+
+    private static void addFactory(final Map<Class<?>, Method[]> factories,
+                                   final Class<?> type,
+                                   final int kind,
+                                   final Method method) {
+        final String annotation = FACTORY_ANNOTATIONS.get(kind).getSimpleName();
+        if (!Comparable.class.isAssignableFrom(type))
+            throw new IllegalStateException(format("Factory %s annotated with @%s supplies %s which is not Comparable!",
+                    method, annotation, type.getName()));
+        if (!Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length != 0)
+            throw new IllegalStateException(format("Factory %s annotated with @%s has to be static and take no parameters!",
+                    method, annotation));
+        if (!List.class.isAssignableFrom(method.getReturnType())
+                && !VerificationInstancesCreator.class.isAssignableFrom(method.getReturnType()))
+            throw new IllegalStateException(format("Factory %s annotated with @%s has to return a List or a VerificationInstancesCreator!",
+                    method, annotation));
+
+        Method[] kinds = factories.get(type);
+        if (null == kinds) {
+            kinds = new Method[FACTORY_ANNOTATIONS.size()];
+            factories.put(type, kinds);
+        }
+        if (null != kinds[kind])
+            throw new IllegalStateException(format("Type %s has more than one @%s factory!", type.getName(), annotation));
+
+        method.setAccessible(true);
+        kinds[kind] = method;
+    }
+
+    private boolean isComparable(final String name,
+                                 final Map<String, ClassFileSummary> classes,
+                                 final Map<String, Boolean> memo) {
+        if (null == name || "java.lang.Object".equals(name))
+            return false;
+        if (COMPARABLE.equals(name))
+            return true;
+
+        final Boolean known = memo.get(name);
+        if (null != known)
+            return known;
+
+        final ClassFileSummary summary = classes.get(name);
+        boolean comparable;
+        if (null == summary) {
+            // a super type outside of the scanned packages has to be loaded,
+            // one missing from the class path cannot be verified anyway
+            try {
+                comparable = Comparable.class.isAssignableFrom(Class.forName(name, false, classLoader));
+            } catch (final ClassNotFoundException exc) {
+                comparable = false;
+            } catch (final LinkageError error) {
+                comparable = false;
+            }
+        } else {
+            comparable = isComparable(summary.superName(), classes, memo);
+            for (final String type : summary.interfaces()) {
+                comparable = comparable || isComparable(type, classes, memo);
+            }
+        }
+        memo.put(name, comparable);
+        return comparable;
+    }
+
+    private Class<?> loadClass(final String name) {
+        try {
+            return Class.forName(name, false, classLoader);
+        } catch (final ClassNotFoundException exc) {
+            throw new IllegalStateException(format("Class %s could not be loaded!", name), exc);
+        }
+    }
+
+    private Map<String, ClassFileSummary> scan() {
+        final Map<String, ClassFileSummary> classes = new LinkedHashMap<String, ClassFileSummary>();
+        for (final String name : packages) {
+            final String path = name.replace('.', '/');
+            try {
+                final Enumeration<URL> roots = classLoader.getResources(path);
+                while (roots.hasMoreElements()) {
+                    final URL root = roots.nextElement();
+                    if ("file".equals(root.getProtocol()))
+                        scanDirectory(new File(root.toURI()), classes);
+                    else if ("jar".equals(root.getProtocol()))
+                        scanJar(root, path, classes);
+                }
+            } catch (final IOException exc) {
+                throw new IllegalStateException(format("Package %s could not be scanned!", name), exc);
+            } catch (final URISyntaxException exc) {
+                throw new IllegalStateException(format("Package %s could not be scanned!", name), exc);
+            }
+        }
+        return classes;
+    }
+
+    private static void scanDirectory(final File directory,
+                                      final Map<String, ClassFileSummary> classes) throws IOException {
+        final File[] files = directory.listFiles();
+        if (null == files)
+            return;
+
+        for (final File file : files) {
+            if (file.isDirectory()) {
+                scanDirectory(file, classes);
+            } else if (file.getName().endsWith(".class")) {
+                final InputStream input = new FileInputStream(file);
+                try {
+                    add(readFully(input, (int) file.length()), classes);
+                } finally {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    private static void scanJar(final URL root,
+                                final String path,
+                                final Map<String, ClassFileSummary> classes) throws IOException {
+        final JarURLConnection connection = (JarURLConnection) root.openConnection();
+        connection.setUseCaches(false);
+        final JarFile jar = connection.getJarFile();
+        try {
+            final Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                if (!entry.getName().startsWith(path + "/") || !entry.getName().endsWith(".class"))
+                    continue;
+
+                final InputStream input = jar.getInputStream(entry);
+                try {
+                    add(readFully(input, (int) Math.max(0L, entry.getSize())), classes);
+                } finally {
+                    input.close();
+                }
+            }
+        } finally {
+            jar.close();
+        }
+    }
+
+    private static void add(final byte[] bytes, final Map<String, ClassFileSummary> classes) {
+        final ClassFileSummary summary = ClassFileSummary.parse(bytes, FACTORY_DESCRIPTORS);
+        // the first class on the class path wins, as for the class loader
+        if (!classes.containsKey(summary.name()))
+            classes.put(summary.name(), summary);
+    }
+
+    private static byte[] readFully(final InputStream input, final int sizeHint) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(sizeHint, 512));
+        final byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
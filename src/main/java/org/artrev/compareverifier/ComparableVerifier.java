@@ -15,7 +15,30 @@
  */
 package org.artrev.compareverifier;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import static java.lang.String.format;
 
@@ -102,6 +125,44 @@ import static java.lang.String.format;
  * @see VerificationInstancesCreators
  */
 public final class ComparableVerifier<A extends Comparable<A>> {
+    /**
+     * Default maximal number of rows of the pair space in a single block
+     * returned by {@link #checks()}.
+     */
+    public static final int DEFAULT_BLOCK_ROWS = 64;
+
+    // names of the rules reported by VerificationCheck.rule()
+    private static final String REPLAY_RULE = "replay";
+    private static final String INSTANCES_CREATION_RULE = "instancesCreation";
+    private static final String CONSISTENT_WITH_EQUALS_RULE = "consistentWithEquals";
+    private static final String EQUALS_TO_NULL_RULE = "equalsToNullReturnsFalse";
+    private static final String COMPARE_TO_NULL_RULE = "exceptionOnCompareToNull";
+    private static final String REVERSE_RULE = "reverse";
+    private static final String TRANSITIVITY_RULE = "transitivity";
+    private static final String KEY_CHAIN_RULE = "keyChain";
+    private static final String DIFFERENTIAL_RULE = "differential";
+    private static final String DETERMINISM_RULE = "determinism";
+    private static final String JIT_STRESS_RULE = "jitStress";
+    private static final String ALLOCATION_RULE = "allocationBudget";
+    private static final String THROUGHPUT_RULE = "throughput";
+    private static final String CONCURRENT_STRESS_RULE = "concurrentStress";
+    private static final String SORTED_ORDER_RULE = "sortedOrder";
+
+    // seed of the samples taken by the sampled strategy
+    private static final long SAMPLE_SEED = 42L;
+
+    // pairs listed in the message of the differential check, the rest are only counted
+    private static final int REPORTED_DIFFERENCES = 20;
+
+    // throughput measurement settings
+    private static final long BATCH_NANOS = 10000000L;
+    private static final int MAX_WARMUP_BATCHES = 50;
+    private static final double SETTLED_DIFFERENCE = 0.05;
+    private static final int MEASURED_BATCHES = 5;
+
+    // comparisons well past the thresholds at which HotSpot compiles with C2
+    private static final long JIT_STRESS_CALLS = 200000L;
+
     private final VerificationInstancesCreator<A> lesserCreator;
     private final VerificationInstancesCreator<A> greaterCreator;
     private final VerificationInstancesCreator<A> equalCreator;
@@ -110,6 +171,26 @@ public final class ComparableVerifier<A extends Comparable<A>> {
     private boolean suppressEqualsToNullReturnsFalse = false;
     private boolean suppressExceptionOnCompareToNull = false;
 
+    private ReplayCorpus<A> replayCorpus = null;
+    private Shrinker<A> shrinker = null;
+    private final List<KeyExtractor<? super A, ?>> keySegments =
+            new ArrayList<KeyExtractor<? super A, ?>>();
+    private Comparator<? super A> referenceComparator = null;
+    private long allocationBudget = -1;
+    private double requiredThroughput = -1;
+    private int stressThreads = 0;
+    private int stressRounds = 0;
+    private int jitStressIterations = 0;
+    private int determinismRepetitions = 0;
+    private VerificationListener listener;
+    private CancellationToken cancellation;
+    private ObjectName metricsName;
+    private volatile VerificationMetrics metrics;
+    private VerificationStrategy strategy = VerificationStrategy.EXHAUSTIVE;
+    private double sampledFraction = 1.0;
+    private long autoBudgetNanos = -1;
+    private boolean createConcurrently = false;
+
     private ComparableVerifier(final VerificationInstancesCreator<A> lesserCreator,
                                final VerificationInstancesCreator<A> equalCreator,
                                final VerificationInstancesCreator<A> greaterCreator) {
@@ -137,6 +218,36 @@ public final class ComparableVerifier<A extends Comparable<A>> {
         );
     }
 
+    /**
+     * Creates an instance of the {@link ComparableVerifier} for creators that
+     * create the instances in the background. The creators are started at
+     * once and the checks of every group of instances start as soon as the
+     * group is created, see {@link #createConcurrently(boolean)}.
+     *
+     * @param lesserCreator  "lesser" instances factory
+     * @param equalCreator   "equal" instances factory
+     * @param greaterCreator "greater" instances factory
+     * @param <A>            type of the class under test
+     * @return instance of {@link ComparableVerifier}
+     */
+    public static <A extends Comparable<A>> ComparableVerifier<A> forAsyncInstances(
+            final AsyncVerificationInstancesCreator<A> lesserCreator,
+            final AsyncVerificationInstancesCreator<A> equalCreator,
+            final AsyncVerificationInstancesCreator<A> greaterCreator) {
+        if (null == lesserCreator)
+            throw new IllegalArgumentException("AsyncVerificationInstancesCreator (lesser) cannot be null!");
+        if (null == equalCreator)
+            throw new IllegalArgumentException("AsyncVerificationInstancesCreator (equal) cannot be null!");
+        if (null == greaterCreator)
+            throw new IllegalArgumentException("AsyncVerificationInstancesCreator (greater) cannot be null!");
+
+        return new ComparableVerifier<A>(
+                VerificationInstancesCreators.fromAsync(lesserCreator),
+                VerificationInstancesCreators.fromAsync(equalCreator),
+                VerificationInstancesCreators.fromAsync(greaterCreator)
+        ).createConcurrently(true);
+    }
+
     /**
      * Causes that the (a.compareTo(b)==0) == (a.equals(b)) won't be verified.
      * <p>
@@ -182,58 +293,1587 @@ public final class ComparableVerifier<A extends Comparable<A>> {
         return this;
     }
 
+    /**
+     * Causes that the counterexamples found by the verification are stored in
+     * the given replay corpus file and that every verification replays the
+     * stored counterexamples first, before the instances creators are even
+     * invoked. Known regressions fail fast that way instead of after the full
+     * search.
+     * <p>
+     * Every stored counterexample consists of the instances that broke the
+     * contract and the first instance of each group as a context.
+     *
+     * @param file    replay corpus file, it is created on the first failure.
+     * @param encoder function turning an instance into bytes.
+     * @param decoder function turning bytes back into an instance.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> replayCorpus(final File file,
+                                              final InstanceEncoder<A> encoder,
+                                              final InstanceDecoder<A> decoder) {
+        if (null == file)
+            throw new IllegalArgumentException("Replay corpus file cannot be null!");
+        if (null == encoder)
+            throw new IllegalArgumentException("InstanceEncoder cannot be null!");
+        if (null == decoder)
+            throw new IllegalArgumentException("InstanceDecoder cannot be null!");
+
+        replayCorpus = new ReplayCorpus<A>(file, encoder, decoder);
+        return this;
+    }
+
+    /**
+     * Causes that a counterexample found by the verification is shrunk before
+     * it is reported, so the instances in the failure message are as small as
+     * the given shrinker can make them while still breaking the same rule.
+     * <p>
+     * The counterexample starts as the instances that broke the contract and
+     * the first instance of each group as a context. Its instances are then
+     * removed or replaced by their shrunk candidates one at a time, trying all
+     * the candidates of a round on all available processors, until no smaller
+     * counterexample breaks the rule. The results of the comparisons are
+     * cached meanwhile, so no pair of instances is compared twice.
+     * <p>
+     * Only the counterexamples whose equal instances are equal to each other
+     * and not equal to any lesser or greater instance are kept, otherwise the
+     * rules would be broken trivially. When a replay corpus is given, the
+     * shrunk counterexample is recorded in it.
+     *
+     * @param shrinker function returning smaller candidates of an instance.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> shrinkWith(final Shrinker<A> shrinker) {
+        if (null == shrinker)
+            throw new IllegalArgumentException("Shrinker cannot be null!");
+
+        this.shrinker = shrinker;
+        return this;
+    }
+
+    /**
+     * Adds a segment to the key chain the {@code compareTo} under test is made
+     * of, e.g. a {@code compareTo} comparing by the last name and then by the
+     * first name is described by two segments, added in that order.
+     * <p>
+     * When a key chain is given, the keys of every instance are extracted only
+     * once into a key table. The reverse and transitivity checks are then done
+     * for every segment on the cached keys instead of calling the expensive
+     * {@code compareTo}, and the segment that breaks the contract is reported.
+     * Additionally every ordered pair of instances is compared once with
+     * {@code compareTo} to confirm that it agrees with the key chain, which
+     * makes it a total order as well without checking all the triples.
+     * <p>
+     * Segments are reported by their position in the chain, starting from 1.
+     *
+     * @param extractor function extracting the key of the segment.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> keySegment(final KeyExtractor<? super A, ?> extractor) {
+        if (null == extractor)
+            throw new IllegalArgumentException("KeyExtractor cannot be null!");
+
+        keySegments.add(extractor);
+        return this;
+    }
+
+    /**
+     * Causes that the {@code compareTo} under test is additionally compared
+     * with the given reference implementation, e.g. the previous, slower
+     * version of an optimized {@code compareTo}.
+     * <p>
+     * Every ordered pair of instances returned by all three creators is
+     * compared both ways, on all available processors, and the pairs for
+     * which the signs differ, or only one of the implementations throws, are
+     * counted, the first 20 of them are listed in the message. This goes
+     * beyond the contract checks, as two implementations can obey the
+     * contract and still order the instances differently.
+     *
+     * @param reference comparator implementing the reference order.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> differentialAgainst(final Comparator<? super A> reference) {
+        if (null == reference)
+            throw new IllegalArgumentException("Reference Comparator cannot be null!");
+
+        referenceComparator = reference;
+        return this;
+    }
+
+    /**
+     * Causes that the average number of bytes allocated by a single
+     * {@code compareTo} call is verified not to exceed the given budget, e.g.
+     * 0 for a {@code compareTo} that has to be allocation-free.
+     * <p>
+     * Every ordered pair of instances returned by all three creators is
+     * compared repeatedly, so the JIT compiler can settle, before the bytes
+     * allocated by the measured pass are divided by the number of calls.
+     * The measurement relies on {@code com.sun.management.ThreadMXBean}, the
+     * check is skipped on JVMs that do not support it.
+     *
+     * @param bytesPerCall non-negative budget of bytes per call.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> allocationBudget(final long bytesPerCall) {
+        if (bytesPerCall < 0)
+            throw new IllegalArgumentException("Allocation budget cannot be negative!");
+
+        allocationBudget = bytesPerCall;
+        return this;
+    }
+
+    /**
+     * Causes that the throughput of {@code compareTo} is verified not to fall
+     * below the given number of calls per second.
+     * <p>
+     * The measured calls are the pairwise combinations of the reverse check,
+     * i.e. both directions of every equal-equal, equal-lesser, equal-greater
+     * and lesser-greater pair. They are repeated in batches until two
+     * consecutive batches differ by less than 5%, so the JIT compiler can
+     * settle, and the median of the following batches is used. The results
+     * of the calls are consumed, so they cannot be eliminated as dead code.
+     *
+     * @param callsPerSecond positive minimal throughput.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> requireThroughput(final double callsPerSecond) {
+        if (callsPerSecond <= 0)
+            throw new IllegalArgumentException("Required throughput has to be positive!");
+
+        requiredThroughput = callsPerSecond;
+        return this;
+    }
+
+    /**
+     * Causes that {@code compareTo} is additionally called on shared instances
+     * from many threads at once, which catches implementations that lazily
+     * cache a sort key without proper synchronization.
+     * <p>
+     * In every round the creators are invoked again, so the threads start
+     * from freshly created instances, and every thread compares all ordered
+     * pairs of them in its own order. The signs are then cross-checked with
+     * signs computed from a single thread on another fresh set of instances.
+     * This requires the creators to create new, but the same, instances on
+     * every call, so it cannot be combined with
+     * {@link VerificationInstancesCreators#cached(VerificationInstancesCreator)}.
+     * The single threaded signs of all the pairs are kept, one byte per pair,
+     * which limits the check to 4096 instances.
+     *
+     * @param threads number of threads, at least 2.
+     * @param rounds  positive number of rounds.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> concurrentStress(final int threads, final int rounds) {
+        if (threads < 2)
+            throw new IllegalArgumentException("Concurrent stress requires at least 2 threads!");
+        if (rounds <= 0)
+            throw new IllegalArgumentException("Concurrent stress rounds have to be positive!");
+
+        stressThreads = threads;
+        stressRounds = rounds;
+        return this;
+    }
+
+    /**
+     * Causes that the signs of {@code compareTo} are repeatedly recomputed
+     * until the comparisons get compiled by the JIT compiler, which catches
+     * bugs that only show in compiled code, e.g. floating point comparisons
+     * with a different intermediate precision or racy caches hoisted out of
+     * the loops.
+     * <p>
+     * The signs of all ordered pairs of instances are recorded before any
+     * other check runs, so typically still in the interpreter. Every following
+     * iteration has to give the same signs. The number of iterations is raised
+     * when needed, so that at least 200000 comparisons are made in total.
+     * All the other checks run afterwards, so against the compiled code. The
+     * recorded signs take one byte per pair, which limits the check to 4096
+     * instances.
+     *
+     * @param iterations positive minimal number of iterations.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> jitStress(final int iterations) {
+        if (iterations <= 0)
+            throw new IllegalArgumentException("JIT stress iterations have to be positive!");
+
+        jitStressIterations = iterations;
+        return this;
+    }
+
+    /**
+     * Causes that every ordered pair of instances is compared the given number
+     * of additional times in a row, which catches a {@code compareTo} that
+     * depends on mutable or time based state. The reverse check compares every
+     * pair only once in each direction, so it would not notice.
+     * <p>
+     * The signs of the first comparisons of a row of pairs are kept, and the
+     * repeated comparisons of the row are only checked against them instead
+     * of running the full checks again.
+     *
+     * @param repetitions positive number of repeated comparisons of every pair.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> repeatDeterminism(final int repetitions) {
+        if (repetitions <= 0)
+            throw new IllegalArgumentException("Determinism repetitions have to be positive!");
+
+        determinismRepetitions = repetitions;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified when every check starts, progresses, passes
+     * or fails, e.g. to report the completed fraction, comparisons per second
+     * and the estimated remaining time of a long verification.
+     *
+     * @param listener listener of the verification.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> listener(final VerificationListener listener) {
+        if (null == listener)
+            throw new IllegalArgumentException("VerificationListener cannot be null!");
+
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Causes that the verification is aborted with a
+     * {@link java.util.concurrent.CancellationException} once the given token
+     * is cancelled. The token is polled before every check and after every row
+     * of the pair space, so a verification stops shortly after cancellation.
+     * The time critical loops of the throughput and allocation checks poll it
+     * only between the measured batches.
+     *
+     * @param cancellation token that can cancel the verification.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> cancellation(final CancellationToken cancellation) {
+        if (null == cancellation)
+            throw new IllegalArgumentException("CancellationToken cannot be null!");
+
+        this.cancellation = cancellation;
+        return this;
+    }
+
+    /**
+     * Causes that the live metrics of the verification are registered in the
+     * platform MBean server under the given name while {@link #verify()} runs,
+     * see {@link VerificationMetricsMXBean} for the exposed attributes. The
+     * MBean is unregistered when the verification ends. When it cannot be
+     * unregistered after a failed verification, the failure of the
+     * verification is reported.
+     * <p>
+     * The checks returned by {@link #checks()} and {@link #checks(int)}, e.g.
+     * run as JUnit 5 dynamic tests, have no end the MBean could be
+     * unregistered at, so their metrics are not registered.
+     *
+     * @param name name of the registered MBean.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> registerMetrics(final ObjectName name) {
+        if (null == name)
+            throw new IllegalArgumentException("ObjectName cannot be null!");
+
+        this.metricsName = name;
+        return this;
+    }
+
+    /**
+     * Causes that the three instances creators are invoked concurrently, each
+     * on its own thread, instead of one after another. {@link #verify()} then
+     * runs the checks that need a single group of instances, i.e. the null
+     * checks, as soon as the group is created, while the other groups are
+     * still being created. The remaining
+     * checks start once all the groups are created.
+     * <p>
+     * The creators and {@link VerificationListener#instancesCreated(String, int, long)}
+     * are called from the creating threads.
+     *
+     * @param concurrently true if the creators should be invoked concurrently.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> createConcurrently(final boolean concurrently) {
+        createConcurrently = concurrently;
+        return this;
+    }
+
+    /**
+     * Sets the strategy used to check the reverse and transitivity rules,
+     * {@link VerificationStrategy#EXHAUSTIVE} by default. The sampled
+     * strategy needs the size of the sample and is set by {@link #sample(double)}.
+     * <p>
+     * The strategy has no effect when a key chain is given, as the reverse and
+     * transitivity rules are then checked on the cached keys.
+     *
+     * @param strategy strategy of the verification.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> strategy(final VerificationStrategy strategy) {
+        if (null == strategy)
+            throw new IllegalArgumentException("VerificationStrategy cannot be null!");
+        if (VerificationStrategy.SAMPLED == strategy)
+            throw new IllegalArgumentException("Sampled strategy requires the size of the sample, use sample(double)!");
+
+        this.strategy = strategy;
+        this.sampledFraction = 1.0;
+        this.autoBudgetNanos = -1;
+        return this;
+    }
+
+    /**
+     * Causes that the contract checks are performed on a random sample of
+     * every group of instances, see {@link VerificationStrategy#SAMPLED}.
+     * At least one lesser, two equal and one greater instance are kept.
+     *
+     * @param fraction fraction of the instances in the sample, greater than 0
+     *                 and at most 1.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> sample(final double fraction) {
+        if (!(fraction > 0 && fraction <= 1))
+            throw new IllegalArgumentException("Sampled fraction has to be greater than 0 and at most 1!");
+
+        this.strategy = VerificationStrategy.SAMPLED;
+        this.sampledFraction = fraction;
+        this.autoBudgetNanos = -1;
+        return this;
+    }
+
+    /**
+     * Causes that the strategy of the verification is picked to fit the given
+     * time budget, once the instances are created. The cost of a single
+     * {@code compareTo} call is measured on a sample of 2000 random pairs of
+     * the instances, after a warmup of the same size, and the first strategy
+     * that fits the budget is picked, in the order:
+     * <ol>
+     * <li>{@link VerificationStrategy#EXHAUSTIVE}</li>
+     * <li>{@link VerificationStrategy#PARALLEL}, assuming 75% of the ideal
+     * speedup on all available processors</li>
+     * <li>{@link VerificationStrategy#SAMPLED}, with the largest sample that
+     * fits, if it holds at least 10% of the instances</li>
+     * <li>{@link VerificationStrategy#SORT_BASED} otherwise, which checks only
+     * the neighbours in the sorted order, so it is not exhaustive</li>
+     * </ol>
+     * The budget covers the reverse and transitivity checks only. The picked
+     * strategy and the reason are reported to
+     * {@link VerificationListener#strategyChosen(VerificationStrategy, String)}.
+     *
+     * @param budget positive time budget.
+     * @param unit   unit of the budget.
+     * @return instance of {@link ComparableVerifier}
+     */
+    public ComparableVerifier<A> auto(final long budget, final TimeUnit unit) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("Time budget has to be positive!");
+        if (null == unit)
+            throw new IllegalArgumentException("TimeUnit cannot be null!");
+
+        this.autoBudgetNanos = unit.toNanos(budget);
+        return this;
+    }
+
     /**
      * Performs verification if the tested instances are in natural order thus
      * the {@link Comparable} interfaces is correctly implemented.
      */
     public void verify() {
+        if (null != metricsName)
+            registerMetrics();
+        boolean completed = false;
+        try {
+            if (null != replayCorpus)
+                replayCheck().run();
+
+            if (createConcurrently) {
+                verifyPipelined();
+            } else {
+                run(checks(createInstances(), Integer.MAX_VALUE, true, true));
+            }
+            completed = true;
+        } finally {
+            // a failure to unregister must not hide the failure of the verification
+            if (null != metricsName)
+                unregisterMetrics(completed);
+        }
+    }
+
+    private void run(final List<? extends MeteredCheck> checks) {
+        final VerificationMetrics metrics = this.metrics;
+        if (null != metrics)
+            for (final MeteredCheck check : checks) {
+                check.expect(metrics);
+            }
+        for (final VerificationCheck check : checks) {
+            check.run();
+        }
+    }
+
+    // a few blocks for every processor, so the uneven blocks do not leave processors idle
+    private static int parallelBlockRows(final Instances<?> instances) {
+        final int rows = Math.max(instances.lesser.size(), Math.max(instances.equal.size(), instances.greater.size()));
+        return Math.max(1, rows / (4 * ParallelRows.defaultThreads()));
+    }
+
+    private void registerMetrics() {
+        final VerificationMetrics created = new VerificationMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(new StandardMBean(created, VerificationMetricsMXBean.class, true), metricsName);
+        } catch (final JMException exc) {
+            throw new IllegalStateException(
+                    format("Verification metrics could not be registered as %s!", metricsName), exc
+            );
+        }
+        metrics = created;
+    }
+
+    private void unregisterMetrics(final boolean report) {
+        metrics = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+        } catch (final JMException exc) {
+            if (!report)
+                return;
+            throw new IllegalStateException(
+                    format("Verification metrics could not be unregistered from %s!", metricsName), exc
+            );
+        }
+    }
+
+    /**
+     * Returns the checks performed by {@link #verify()} as separate units, so
+     * they can be run and reported one by one, e.g. as dynamic tests. The
+     * checks iterating over pairs of instances are split into blocks of at
+     * most {@link #DEFAULT_BLOCK_ROWS} rows of the pair space.
+     * <p>
+     * For more information please check {@link #checks(int)}.
+     *
+     * @return checks in the order {@link #verify()} runs them.
+     */
+    public List<VerificationCheck> checks() {
+        return checks(DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Returns the checks performed by {@link #verify()} as separate units, so
+     * they can be run and reported one by one, e.g. as dynamic tests. The
+     * checks iterating over pairs of instances are split into blocks of at
+     * most the given number of rows of the pair space.
+     * <p>
+     * The instances creators are invoked by this method, as the blocks are
+     * split by the number of the instances. Unlike {@link #verify()}, the
+     * creators therefore run before the replay check, which is still the
+     * first one returned. When a creator fails and a replay corpus is given,
+     * the failure is reported by a check following the replay check instead
+     * of being thrown, so a recorded counterexample is still reported. The
+     * blocks of the contract checks are independent of each other and can be
+     * run in any order and in parallel, while the throughput, allocation and
+     * stress checks are best run alone, as they measure the running JVM.
+     *
+     * @param blockRows positive maximal number of rows in a block.
+     * @return checks in the order {@link #verify()} runs them.
+     */
+    public List<VerificationCheck> checks(final int blockRows) {
+        if (blockRows <= 0)
+            throw new IllegalArgumentException("Number of rows in a block has to be positive!");
+
+        final List<VerificationCheck> checks = new ArrayList<VerificationCheck>();
+        if (null == replayCorpus) {
+            checks.addAll(checks(createInstances(), blockRows, true, false));
+            return checks;
+        }
+
+        checks.add(replayCheck());
+        final Instances<A> instances;
+        try {
+            instances = createInstances();
+        } catch (final RuntimeException exc) {
+            checks.add(failedCreationCheck(exc));
+            return checks;
+        } catch (final Error error) {
+            checks.add(failedCreationCheck(error));
+            return checks;
+        }
+        checks.addAll(checks(instances, blockRows, true, false));
+        return checks;
+    }
+
+    private VerificationCheck failedCreationCheck(final Throwable failure) {
+        return new Check(INSTANCES_CREATION_RULE, "instances creation", 1, 0) {
+            @Override
+            void execute(final CheckProgress progress) {
+                if (failure instanceof Error)
+                    throw (Error) failure;
+                throw (RuntimeException) failure;
+            }
+        };
+    }
+
+    // every recorded counterexample is a row of the replay check
+    private VerificationCheck replayCheck() {
+        final String name = "replay " + replayCorpus.file();
+        final List<List<Check>> replayed = new ArrayList<List<Check>>();
+        long expectedComparisons = 0;
+        try {
+            for (final ReplayCorpus.Counterexample<A> counterexample : replayCorpus.load()) {
+                final List<Check> checks = new ArrayList<Check>();
+                addContractChecks(
+                        checks,
+                        new Instances<A>(counterexample.lesser, counterexample.equal, counterexample.greater),
+                        Integer.MAX_VALUE,
+                        false,
+                        VerificationStrategy.EXHAUSTIVE
+                );
+                for (final Check check : checks) {
+                    expectedComparisons += check.expectedComparisons;
+                }
+                replayed.add(checks);
+            }
+        } catch (final RuntimeException exc) {
+            // a corpus that cannot be loaded fails the replay check once it runs
+            return new Check(REPLAY_RULE, name, 1, 0) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    throw exc;
+                }
+            };
+        }
+
+        return new Check(REPLAY_RULE, name, replayed.size(), expectedComparisons) {
+            @Override
+            void execute(final CheckProgress progress) {
+                replayCounterexamples(replayed, progress);
+            }
+        };
+    }
+
+    private Instances<A> createInstances() {
         // verify that the instances creators are not null (obvious check)
         // verify that the instances List is not null (obvious check)
         // verify that the instances List has at least one element (obvious check)
-        final List<A> lesserInstances =
-                verifyInstancesCreator(lesserCreator, "lesser");
-        final List<A> equalInstances =
-                verifyInstancesCreator(equalCreator, "equal");
-        final List<A> greaterInstances =
-                verifyInstancesCreator(greaterCreator, "greater");
-
-        // verify that the returned instances are consistent with equals
-        // we only check the instances created by the Equal instances creator
-        // as they are supposed to be the same in terms of equals implementation
-        verifyCompareToConsistentWithEquals(equalInstances);
+        if (!createConcurrently)
+            return new Instances<A>(
+                    create(lesserCreator, "lesser"),
+                    create(equalCreator, "equal"),
+                    create(greaterCreator, "greater")
+            );
+
+        final CreationPipeline<A> pipeline = startCreation();
+        try {
+            pipeline.awaitAll();
+            return new Instances<A>(pipeline.get(0), pipeline.get(1), pipeline.get(2));
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    private CreationPipeline<A> startCreation() {
+        final List<Callable<List<A>>> creators = new ArrayList<Callable<List<A>>>(3);
+        creators.add(creation(lesserCreator, "lesser"));
+        creators.add(creation(equalCreator, "equal"));
+        creators.add(creation(greaterCreator, "greater"));
+        return CreationPipeline.start(creators, cancellation);
+    }
+
+    private Callable<List<A>> creation(final VerificationInstancesCreator<A> creator,
+                                       final String type) {
+        return new Callable<List<A>>() {
+            @Override
+            public List<A> call() {
+                return create(creator, type);
+            }
+        };
+    }
+
+    // the checks of a single group run while the other groups are still being created
+    private void verifyPipelined() {
+        final CreationPipeline<A> pipeline = startCreation();
+        try {
+            final String[] names = {"lesser", "equal", "greater"};
+            while (pipeline.hasNext()) {
+                final int created = pipeline.next();
+                final List<Check> checks = new ArrayList<Check>();
+                addGroupChecks(checks, Collections.singletonList(new Group<A>(names[created], pipeline.get(created))), null);
+                try {
+                    run(checks);
+                } catch (final ContractViolation violation) {
+                    // the counterexample is recorded with the context of all the groups
+                    if (null != replayCorpus) {
+                        pipeline.awaitAll();
+                        recordCounterexample(violation, new Instances<A>(pipeline.get(0), pipeline.get(1), pipeline.get(2)));
+                    }
+                    throw violation;
+                }
+            }
+
+            final Instances<A> instances = new Instances<A>(pipeline.get(0), pipeline.get(1), pipeline.get(2));
+            run(checks(instances, Integer.MAX_VALUE, false, true));
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    // concurrent blocks are run by a single executor, otherwise the caller runs them in parallel
+    private List<MeteredCheck> checks(final Instances<A> instances,
+                                      final int blockRows,
+                                      final boolean groupChecks,
+                                      final boolean concurrentBlocks) {
+        final List<MeteredCheck> checks = new ArrayList<MeteredCheck>();
 
+        // the first iteration of the JIT stress has to run the cold, interpreted
+        // comparisons, so it goes first, then unstable signs are looked for and
+        // all the following checks run against the compiled code
+        if (jitStressIterations > 0)
+            checks.add(new Check(JIT_STRESS_RULE, "JIT stress",
+                    jitStressPasses(instances.merged.size()) * instances.merged.size(),
+                    jitStressPasses(instances.merged.size()) * pairs(instances.merged)) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyJitStress(instances.merged, progress);
+                }
+            });
+        if (determinismRepetitions > 0)
+            checks.add(new Check(DETERMINISM_RULE, "determinism", instances.merged.size(),
+                    pairs(instances.merged) * determinismRepetitions) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyDeterminism(instances.merged, progress);
+                }
+            });
+
+        final StrategySelector.Choice choice = chooseStrategy(instances);
+        final Instances<A> verified = VerificationStrategy.SAMPLED == choice.strategy
+                ? instances.sample(choice.sampledFraction)
+                : instances;
+        addConsistencyCheck(checks, verified, verified);
+        if (groupChecks)
+            addGroupChecks(checks, verified.groups(), verified);
+        if (concurrentBlocks && VerificationStrategy.PARALLEL == choice.strategy) {
+            final List<Check> blocks = new ArrayList<Check>();
+            addPairChecks(blocks, verified, parallelBlockRows(verified), verified, choice.strategy);
+            checks.add(new ConcurrentChecks(blocks));
+        } else {
+            addPairChecks(checks, verified, blockRows, verified, choice.strategy);
+        }
+        addDifferentialCheck(checks, verified, verified);
+
+        // performance is only meaningful for a compareTo obeying the contract
+        // and for the full instance pools, so it is neither replayed nor recorded
+        if (allocationBudget >= 0)
+            checks.add(new Check(ALLOCATION_RULE, "allocation budget",
+                    allocationWarmupPasses(instances.merged.size()) + 1,
+                    (allocationWarmupPasses(instances.merged.size()) + 1) * pairs(instances.merged)) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyAllocationBudget(instances.merged, progress);
+                }
+            });
+        if (requiredThroughput > 0)
+            // the batches are sized by the clock, so the comparisons are not known up front
+            checks.add(new Check(THROUGHPUT_RULE, "throughput", MAX_WARMUP_BATCHES + MEASURED_BATCHES, 0) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyThroughput(instances.lesser, instances.equal, instances.greater, progress);
+                }
+            });
+        if (stressThreads > 0)
+            checks.add(new Check(CONCURRENT_STRESS_RULE, "concurrent stress", stressRounds,
+                    (long) stressRounds * stressThreads * pairs(instances.merged)) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyConcurrentStress(progress);
+                }
+            });
+        return checks;
+    }
+
+    private StrategySelector.Choice chooseStrategy(final Instances<A> instances) {
+        if (!keySegments.isEmpty())
+            return new StrategySelector.Choice(VerificationStrategy.EXHAUSTIVE, "key chain is given", 1.0);
+
+        final StrategySelector.Choice choice;
+        if (autoBudgetNanos > 0)
+            choice = StrategySelector.choose(
+                    autoBudgetNanos,
+                    ParallelRows.defaultThreads(),
+                    StrategySelector.calibrate(instances.merged),
+                    instances.lesser.size(),
+                    instances.equal.size(),
+                    instances.greater.size()
+            );
+        else
+            choice = new StrategySelector.Choice(strategy, "set by the builder", sampledFraction);
+
+        if (null != listener)
+            listener.strategyChosen(choice.strategy, choice.reason);
+        return choice;
+    }
+
+    private void addContractChecks(final List<? super Check> checks,
+                                   final Instances<A> instances,
+                                   final int blockRows,
+                                   final boolean record,
+                                   final VerificationStrategy strategy) {
+        final Instances<A> recorded = record ? instances : null;
+        addConsistencyCheck(checks, instances, recorded);
+        addGroupChecks(checks, instances.groups(), recorded);
+        addPairChecks(checks, instances, blockRows, recorded, strategy);
+        addDifferentialCheck(checks, instances, recorded);
+    }
+
+    private void addConsistencyCheck(final List<? super Check> checks,
+                                     final Instances<A> instances,
+                                     final Instances<A> recorded) {
+        // verify that (a.compareTo(b) == 0) == a.equals(b) for all the instances
+        if (!suppressConsistentWithEquals)
+            checks.add(new ContractCheck(CONSISTENT_WITH_EQUALS_RULE, "consistent with equals",
+                    instances.merged.size(), sortComparisons(instances.merged.size()), recorded) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyCompareToConsistentWithEquals(instances.merged, progress);
+                }
+            });
+    }
+
+    // checks that need a single group of instances only
+    private void addGroupChecks(final List<? super Check> checks,
+                                final List<Group<A>> groups,
+                                final Instances<A> recorded) {
         // verify that the returned instances return false when checked for equality with null
-        verifyEqualsToNullReturnsFalse(lesserInstances);
-        verifyEqualsToNullReturnsFalse(equalInstances);
-        verifyEqualsToNullReturnsFalse(greaterInstances);
+        if (!suppressEqualsToNullReturnsFalse)
+            for (final Group<A> group : groups)
+                checks.add(new ContractCheck(EQUALS_TO_NULL_RULE, "equals null (" + group.name + ")",
+                        group.instances.size(), 0, recorded) {
+                    @Override
+                    void execute(final CheckProgress progress) {
+                        verifyEqualsToNullReturnsFalse(group.instances, progress);
+                    }
+                });
 
         // verify that the returned instances throw an exception when compared to null
-        verifyExceptionOnCompareToNull(lesserInstances);
-        verifyExceptionOnCompareToNull(equalInstances);
-        verifyExceptionOnCompareToNull(greaterInstances);
+        if (!suppressExceptionOnCompareToNull)
+            for (final Group<A> group : groups)
+                checks.add(new ContractCheck(COMPARE_TO_NULL_RULE, "compareTo null (" + group.name + ")",
+                        group.instances.size(), group.instances.size(), recorded) {
+                    @Override
+                    void execute(final CheckProgress progress) {
+                        verifyExceptionOnCompareToNull(group.instances, progress);
+                    }
+                });
+    }
+
+    // checks that need all the groups of instances
+    private void addPairChecks(final List<? super Check> checks,
+                               final Instances<A> instances,
+                               final int blockRows,
+                               final Instances<A> recorded,
+                               final VerificationStrategy strategy) {
+        if (!keySegments.isEmpty()) {
+            // reverse and transitivity are checked on the cached keys, compareTo against the chain
+            checks.add(new ContractCheck(KEY_CHAIN_RULE, "key chain",
+                    2L * keySegments.size() + 1 + instances.merged.size(),
+                    (2L * keySegments.size() + 2) * pairs(instances.merged), recorded) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyKeyChain(instances.lesser, instances.equal, instances.greater, progress);
+                }
+            });
+        } else {
+            if (VerificationStrategy.SORT_BASED == strategy) {
+                // neighbours in the sorted order stand in for all the pairs and triples
+                checks.add(new ContractCheck(SORTED_ORDER_RULE, "sorted order",
+                        instances.merged.size(), sortComparisons(instances.merged.size()), recorded) {
+                    @Override
+                    void execute(final CheckProgress progress) {
+                        verifySortedOrder(instances, progress);
+                    }
+                });
+            } else {
+                // verify that sgn(a.compareTo(b)) == -sgn(b.compareTo(a))
+                final Group<A> lesser = instances.groups().get(0);
+                final Group<A> equal = instances.groups().get(1);
+                final Group<A> greater = instances.groups().get(2);
+                addReverseChecks(checks, equal, equal, blockRows, recorded);
+                addReverseChecks(checks, equal, lesser, blockRows, recorded);
+                addReverseChecks(checks, equal, greater, blockRows, recorded);
+                addReverseChecks(checks, lesser, greater, blockRows, recorded);
+
+                // verify that sgn(a.compareTo(b)) > 0 && sgn(b.compareTo(c)) > 0 => sgn(a.compareTo(c)) > 0
+                for (final int[] block : blocks(instances.lesser.size(), blockRows)) {
+                    final List<A> lesserBlock = instances.lesser.subList(block[0], block[1]);
+                    checks.add(new ContractCheck(TRANSITIVITY_RULE,
+                            "transitivity" + describeBlock(block, instances.lesser.size()), lesserBlock.size(),
+                            3L * lesserBlock.size() * instances.equal.size() * instances.greater.size(), recorded) {
+                        @Override
+                        void execute(final CheckProgress progress) {
+                            verifyTransitivity(lesserBlock, instances.equal, instances.greater, progress);
+                        }
+                    });
+                }
+            }
+
+            // TODO: test sgn(a.compareTo(c)) == sgn(b.compareTo(c)) => sgn(a.compareTo(b)) == 0
+        }
+    }
 
-        // verify that sgn(a.compareTo(b)) == -sgn(b.compareTo(a))
-        verifyReverse(equalInstances, equalInstances);
-        verifyReverse(equalInstances, lesserInstances);
-        verifyReverse(equalInstances, greaterInstances);
-        verifyReverse(lesserInstances, greaterInstances);
+    // runs its rows in parallel itself, so it is never one of the concurrent blocks
+    private void addDifferentialCheck(final List<? super Check> checks,
+                                      final Instances<A> instances,
+                                      final Instances<A> recorded) {
+        // verify that sgn(a.compareTo(b)) == sgn(reference.compare(a, b))
+        if (null != referenceComparator)
+            checks.add(new ContractCheck(DIFFERENTIAL_RULE, "differential",
+                    instances.merged.size(), 2L * pairs(instances.merged), recorded) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyDifferential(instances.merged, progress);
+                }
+            });
+    }
+
+    private void addReverseChecks(final List<? super Check> checks,
+                                  final Group<A> first,
+                                  final Group<A> second,
+                                  final int blockRows,
+                                  final Instances<A> recorded) {
+        for (final int[] block : blocks(first.instances.size(), blockRows)) {
+            final List<A> firstBlock = first.instances.subList(block[0], block[1]);
+            final String name = format("reverse (%s, %s)%s",
+                    first.name, second.name, describeBlock(block, first.instances.size()));
+            checks.add(new ContractCheck(REVERSE_RULE, name,
+                    firstBlock.size(), 2L * firstBlock.size() * second.instances.size(), recorded) {
+                @Override
+                void execute(final CheckProgress progress) {
+                    verifyReverse(firstBlock, second.instances, progress);
+                }
+            });
+        }
+    }
+
+    private static long pairs(final List<?> instances) {
+        return (long) instances.size() * instances.size();
+    }
+
+    // comparisons of sorting the instances and checking their neighbours
+    private static long sortComparisons(final int instances) {
+        return (long) instances * (Long.SIZE - Long.numberOfLeadingZeros(instances)) + instances;
+    }
+
+    private static List<int[]> blocks(final int rows, final int blockRows) {
+        final List<int[]> blocks = new ArrayList<int[]>();
+        for (int from = 0; from < rows; from += blockRows) {
+            blocks.add(new int[]{from, (int) Math.min((long) from + blockRows, rows)});
+        }
+        return blocks;
+    }
+
+    private static String describeBlock(final int[] block, final int rows) {
+        if (block[0] == 0 && block[1] == rows)
+            return "";
+        return format(" rows %d-%d", block[0], block[1] - 1);
+    }
+
+    private void verifyDeterminism(final List<A> instances,
+                                   final CheckProgress progress) {
+        // a single row of the first signs at a time, so any number of instances fits
+        final int[] first = new int[instances.size()];
+        for (int row = 0; row < instances.size(); row++) {
+            final A a = instances.get(row);
+            for (int column = 0; column < instances.size(); column++) {
+                first[column] = SignMatrix.sign(a, instances.get(column));
+            }
+            for (int column = 0; column < instances.size(); column++) {
+                final A b = instances.get(column);
+                for (int repetition = 0; repetition < determinismRepetitions; repetition++) {
+                    final int sign = progress.sign(a, b);
+                    if (sign != first[column])
+                        throw new AssertionError(
+                                format("Comparing %s to %s gave %s on repetition %d but %s the first time!",
+                                        a, b, SignMatrix.describe(sign), repetition + 1,
+                                        SignMatrix.describe(first[column]))
+                        );
+                }
+            }
+            progress.row((long) determinismRepetitions * instances.size());
+        }
+    }
+
+    // number of iterations following the first one
+    private long jitStressPasses(final int instances) {
+        final long pairs = (long) instances * instances;
+        return Math.max(jitStressIterations, (JIT_STRESS_CALLS + pairs - 1) / pairs) - 1;
+    }
+
+    private void verifyJitStress(final List<A> instances,
+                                 final CheckProgress progress) {
+        final SignMatrix first = SignMatrix.compute(instances, "JIT stress");
+        final long iterations = jitStressPasses(instances.size()) + 1;
+
+        for (long iteration = 1; iteration < iterations; iteration++) {
+            for (int row = 0; row < instances.size(); row++) {
+                final A a = instances.get(row);
+                for (int column = 0; column < instances.size(); column++) {
+                    final A b = instances.get(column);
+                    final int sign = progress.sign(a, b);
+                    if (sign != first.get(row, column))
+                        throw new AssertionError(
+                                format("Comparing %s to %s gave %s in iteration %d but %s in the first iteration!",
+                                        a, b, SignMatrix.describe(sign), iteration + 1,
+                                        SignMatrix.describe(first.get(row, column)))
+                        );
+                }
+                progress.row(instances.size());
+            }
+        }
+    }
+
+    private List<A> create(final VerificationInstancesCreator<A> creator,
+                           final String type) {
+        final long start = System.nanoTime();
+        final List<A> instances = verifyInstancesCreator(creator, type);
+        if (null != listener)
+            listener.instancesCreated(type, instances.size(), System.nanoTime() - start);
+        return instances;
+    }
+
+    private List<A> createFreshInstances() {
+        return merge(
+                create(lesserCreator, "lesser"),
+                create(equalCreator, "equal"),
+                create(greaterCreator, "greater")
+        );
+    }
+
+    private void verifyConcurrentStress(final CheckProgress progress) {
+        final List<A> baselineInstances = createFreshInstances();
+        final SignMatrix baseline = SignMatrix.compute(baselineInstances, "Concurrent stress");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(stressThreads);
+        try {
+            for (int round = 0; round < stressRounds; round++) {
+                final List<A> shared = createFreshInstances();
+                if (shared.size() != baseline.size())
+                    throw new IllegalStateException(
+                            "VerificationInstancesCreators have to return the same number of instances on every call!"
+                    );
+
+                for (final int[] difference : compareConcurrently(executor, baseline, shared)) {
+                    if (null == difference)
+                        continue;
+
+                    final A a = shared.get(difference[0]);
+                    final A b = shared.get(difference[1]);
+                    throw new AssertionError(
+                            format("Comparing %s to %s concurrently gave %s but %s from a single thread!",
+                                    a, b, SignMatrix.describe(difference[2]),
+                                    SignMatrix.describe(baseline.get(difference[0], difference[1])))
+                    );
+                }
+                progress.row((long) stressThreads * shared.size() * shared.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the first pair every thread compared differently than the read-only baseline, or null
+    private List<int[]> compareConcurrently(final ExecutorService executor,
+                                            final SignMatrix baseline,
+                                            final List<A> instances) {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<int[]>> futures = new ArrayList<Future<int[]>>(stressThreads);
+        for (int thread = 0; thread < stressThreads; thread++) {
+            // every thread starts from a different row to collide on different instances
+            final int firstRow = thread * instances.size() / stressThreads;
+            futures.add(executor.submit(new Callable<int[]>() {
+                @Override
+                public int[] call() throws InterruptedException {
+                    start.await();
+                    for (int offset = 0; offset < instances.size(); offset++) {
+                        final int row = (firstRow + offset) % instances.size();
+                        final A a = instances.get(row);
+                        for (int column = 0; column < instances.size(); column++) {
+                            final int sign = SignMatrix.sign(a, instances.get(column));
+                            if (sign != baseline.get(row, column))
+                                return new int[]{row, column, sign};
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+
+        final List<int[]> results = new ArrayList<int[]>(stressThreads);
+        for (final Future<int[]> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (final InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Concurrent stress was interrupted!", exc);
+            } catch (final ExecutionException exc) {
+                throw new IllegalStateException("Concurrent stress failed!", exc.getCause());
+            }
+        }
+        return results;
+    }
+
+    private void verifyThroughput(final List<A> lesser,
+                                  final List<A> equal,
+                                  final List<A> greater,
+                                  final CheckProgress progress) {
+        final Blackhole blackhole = new Blackhole();
+        final long callsPerPass = 2L * ((long) equal.size() * equal.size()
+                + (long) equal.size() * lesser.size()
+                + (long) equal.size() * greater.size()
+                + (long) lesser.size() * greater.size());
+
+        // grow the batch until it takes long enough to be timed reliably
+        int passes = 1;
+        while (timeReversePasses(lesser, equal, greater, passes, blackhole) < BATCH_NANOS
+                && passes < Integer.MAX_VALUE / 2) {
+            passes *= 2;
+        }
+
+        double previous = -1;
+        for (int batch = 0; batch < MAX_WARMUP_BATCHES; batch++) {
+            final double current = (double) timeReversePasses(lesser, equal, greater, passes, blackhole);
+            if (previous > 0 && Math.abs(current - previous) / previous < SETTLED_DIFFERENCE) {
+                // the batches the warmup did not need are completed as well
+                progress.rows(MAX_WARMUP_BATCHES - batch, callsPerPass * passes);
+                break;
+            }
+            previous = current;
+            progress.row(callsPerPass * passes);
+        }
+
+        final double[] throughput = new double[MEASURED_BATCHES];
+        for (int batch = 0; batch < MEASURED_BATCHES; batch++) {
+            final long elapsed = Math.max(1L, timeReversePasses(lesser, equal, greater, passes, blackhole));
+            throughput[batch] = callsPerPass * passes * 1e9 / elapsed;
+            progress.row(callsPerPass * passes);
+        }
+        blackhole.publish();
+        Arrays.sort(throughput);
+
+        final double median = throughput[MEASURED_BATCHES / 2];
+        if (median < requiredThroughput)
+            throw new AssertionError(
+                    format("CompareTo throughput is %.0f calls per second but at least %.0f is required!",
+                            median, requiredThroughput)
+            );
+    }
+
+    private static <A extends Comparable<A>> long timeReversePasses(final List<A> lesser,
+                                                                    final List<A> equal,
+                                                                    final List<A> greater,
+                                                                    final int passes,
+                                                                    final Blackhole blackhole) {
+        final long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            compareReversePairs(equal, equal, blackhole);
+            compareReversePairs(equal, lesser, blackhole);
+            compareReversePairs(equal, greater, blackhole);
+            compareReversePairs(lesser, greater, blackhole);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static <A extends Comparable<A>> void compareReversePairs(final List<A> first,
+                                                                      final List<A> second,
+                                                                      final Blackhole blackhole) {
+        for (int i = 0; i < first.size(); i++) {
+            final A a = first.get(i);
+            for (int j = 0; j < second.size(); j++) {
+                final A b = second.get(j);
+                blackhole.consume(a.compareTo(b));
+                blackhole.consume(b.compareTo(a));
+            }
+        }
+    }
+
+    // enough calls to get the comparisons compiled before measuring
+    private static long allocationWarmupPasses(final int instances) {
+        return Math.max(10L, 20000L / ((long) instances * instances));
+    }
+
+    private void verifyAllocationBudget(final List<A> instances,
+                                        final CheckProgress progress) {
+        final AllocationMeter meter = AllocationMeter.create();
+        if (null == meter)
+            return;
+
+        final Blackhole blackhole = new Blackhole();
+        final long calls = (long) instances.size() * instances.size();
+        final long warmupPasses = allocationWarmupPasses(instances.size());
+        for (long pass = 0; pass < warmupPasses; pass++) {
+            compareAllPairs(instances, blackhole);
+            progress.row(calls);
+        }
+
+        final long overheadStart = meter.allocatedBytes();
+        final long overhead = meter.allocatedBytes() - overheadStart;
+        final long start = meter.allocatedBytes();
+        compareAllPairs(instances, blackhole);
+        final long allocated = Math.max(0L, meter.allocatedBytes() - start - overhead);
+        blackhole.publish();
+        progress.row(calls);
+
+        final double bytesPerCall = (double) allocated / calls;
+        if (bytesPerCall > allocationBudget)
+            throw new AssertionError(
+                    format("CompareTo allocates %.2f bytes per call on average but the budget is %d bytes!",
+                            bytesPerCall, allocationBudget)
+            );
+    }
+
+    private static <A extends Comparable<A>> void compareAllPairs(final List<A> instances,
+                                                                  final Blackhole blackhole) {
+        // indexed loops, so no iterators are allocated during the measurement
+        for (int first = 0; first < instances.size(); first++) {
+            final A a = instances.get(first);
+            for (int second = 0; second < instances.size(); second++) {
+                blackhole.consume(a.compareTo(instances.get(second)));
+            }
+        }
+    }
+
+    // the replayed checks count their rows on a progress of their own, which
+    // times the comparisons the same way, and every counterexample is one row
+    // of the replay check
+    private void replayCounterexamples(final List<List<Check>> replayed,
+                                       final CheckProgress progress) {
+        final VerificationListener slowComparisons = null == listener ? null : new VerificationListener() {
+            @Override
+            public long slowComparisonThresholdNanos() {
+                return listener.slowComparisonThresholdNanos();
+            }
+
+            @Override
+            public void slowComparison(final VerificationCheck check,
+                                       final Object first,
+                                       final Object second,
+                                       final long elapsedNanos) {
+                listener.slowComparison(check, first, second, elapsedNanos);
+            }
+        };
+        for (final List<Check> checks : replayed) {
+            long rows = 0;
+            for (final Check check : checks) {
+                rows += check.rows;
+            }
+            final CheckProgress counterexample = new CheckProgress(progress.check(), rows, slowComparisons, cancellation);
+            try {
+                for (final Check check : checks) {
+                    check.execute(counterexample);
+                }
+            } catch (final ContractViolation violation) {
+                final AssertionError error = new AssertionError(
+                        format("%s (replayed from %s)", violation.getMessage(), replayCorpus.file())
+                );
+                error.initCause(violation);
+                throw error;
+            }
+            progress.row(counterexample.comparisons());
+        }
+    }
+
+    private ContractViolation shrink(final String rule,
+                                     final ContractViolation violation,
+                                     final Instances<A> instances) {
+        final ReplayCorpus.Counterexample<A> captured =
+                ReplayCorpus.capture(violation, instances.lesser, instances.equal, instances.greater);
+        final List<List<A>> groups = new ArrayList<List<A>>(3);
+        groups.add(captured.lesser);
+        groups.add(captured.equal);
+        groups.add(captured.greater);
+
+        final CounterexampleShrinker.Result<A> shrunk;
+        try {
+            shrunk = new CounterexampleShrinker<A>(shrinker, new CounterexampleShrinker.Oracle<A>() {
+                @Override
+                public ContractViolation violation(final List<List<A>> groups, final ComparisonCache cache) {
+                    if (!separated(groups.get(0), groups.get(1), groups.get(2)))
+                        return null;
+                    return ruleViolation(rule, new Instances<A>(groups.get(0), groups.get(1), groups.get(2)), cache);
+                }
+            }).shrink(groups, violation);
+        } catch (final CancellationException exc) {
+            throw exc;
+        } catch (final RuntimeException exc) {
+            final ContractViolation failed = new ContractViolation(
+                    format("%s (counterexample could not be shrunk: %s)", violation.getMessage(), exc),
+                    violation.instances()
+            );
+            failed.initCause(exc);
+            return failed;
+        }
+        if (0 == shrunk.steps)
+            return violation;
+
+        if (null != replayCorpus)
+            recordCounterexample(shrunk.violation,
+                    new Instances<A>(shrunk.groups.get(0), shrunk.groups.get(1), shrunk.groups.get(2)));
+        return new ContractViolation(
+                format("%s (shrunk in %d steps from: %s)", shrunk.violation.getMessage(), shrunk.steps, violation.getMessage()),
+                shrunk.violation.instances()
+        );
+    }
+
+    // shrunk instances could otherwise all end up equal, which breaks every rule
+    private static <A> boolean separated(final List<A> lesser, final List<A> equal, final List<A> greater) {
+        for (final A instance : equal) {
+            if (!instance.equals(equal.get(0)) || containsEqual(lesser, instance) || containsEqual(greater, instance))
+                return false;
+        }
+        for (final A instance : lesser) {
+            if (containsEqual(greater, instance))
+                return false;
+        }
+        return true;
+    }
+
+    private static <A> boolean containsEqual(final List<A> instances, final A instance) {
+        for (final A candidate : instances) {
+            if (candidate.equals(instance))
+                return true;
+        }
+        return false;
+    }
+
+    // runs only the checks of the given rule, comparing through the cache
+    private ContractViolation ruleViolation(final String rule,
+                                            final Instances<A> instances,
+                                            final ComparisonCache cache) {
+        final VerificationStrategy strategy = SORTED_ORDER_RULE.equals(rule)
+                ? VerificationStrategy.SORT_BASED
+                : VerificationStrategy.EXHAUSTIVE;
+        final List<Check> checks = new ArrayList<Check>();
+        addContractChecks(checks, instances, Integer.MAX_VALUE, false, strategy);
+        for (final Check check : checks) {
+            if (!rule.equals(check.rule()))
+                continue;
+            try {
+                check.execute(new CheckProgress(check, 0, null, cancellation, cache));
+            } catch (final ContractViolation violation) {
+                return violation;
+            } catch (final CancellationException exc) {
+                throw exc;
+            } catch (final RuntimeException exc) {
+                // a different failure does not reproduce the violation
+            }
+        }
+        return null;
+    }
+
+    private void recordCounterexample(final ContractViolation violation,
+                                      final Instances<A> instances) {
+        try {
+            replayCorpus.record(
+                    ReplayCorpus.capture(violation, instances.lesser, instances.equal, instances.greater)
+            );
+        } catch (final IOException exc) {
+            final AssertionError error = new AssertionError(
+                    format("%s (counterexample could not be recorded in %s)", violation.getMessage(), replayCorpus.file())
+            );
+            error.initCause(exc);
+            throw error;
+        }
+    }
+
+    private void verifyDifferential(final List<A> instances,
+                                    final CheckProgress progress) {
+        final Comparator<? super A> reference = referenceComparator;
+        // every row keeps only as many pairs as can be listed, which still
+        // contains the first pairs of all the rows
+        final Queue<int[]> differences = new ConcurrentLinkedQueue<int[]>();
+        final AtomicLong differing = new AtomicLong();
+        ParallelRows.run(instances.size(), new ParallelRows.RowTask() {
+            @Override
+            public void run(final int row) {
+                final A a = instances.get(row);
+                int kept = 0;
+                for (int column = 0; column < instances.size(); column++) {
+                    final A b = instances.get(column);
+                    if (progress.sign(a, b) == referenceSign(reference, a, b))
+                        continue;
+                    differing.incrementAndGet();
+                    if (kept++ < REPORTED_DIFFERENCES)
+                        differences.add(new int[]{row, column});
+                }
+                progress.row(instances.size());
+            }
+        });
+        if (differences.isEmpty())
+            return;
+
+        final int[][] pairs = differences.toArray(new int[differences.size()][]);
+        Arrays.sort(pairs, new Comparator<int[]>() {
+            @Override
+            public int compare(final int[] first, final int[] second) {
+                return first[0] != second[0] ? first[0] - second[0] : first[1] - second[1];
+            }
+        });
+        final StringBuilder message = new StringBuilder(
+                format("CompareTo differs from the reference for %d pair(s) of instances!", differing.get())
+        );
+        for (final int[] pair : Arrays.copyOf(pairs, Math.min(pairs.length, REPORTED_DIFFERENCES))) {
+            final A a = instances.get(pair[0]);
+            final A b = instances.get(pair[1]);
+            message.append(format("%n  %s compared to %s: %s but the reference gives %s",
+                    a, b, SignMatrix.describe(SignMatrix.sign(a, b)), SignMatrix.describe(referenceSign(reference, a, b))));
+        }
+        if (differing.get() > REPORTED_DIFFERENCES)
+            message.append(format("%n  ... and %d more pair(s)", differing.get() - REPORTED_DIFFERENCES));
+        throw new ContractViolation(
+                message.toString(), instances.get(pairs[0][0]), instances.get(pairs[0][1])
+        );
+    }
+
+    private static <A> int referenceSign(final Comparator<? super A> reference, final A a, final A b) {
+        try {
+            return (int) Math.signum(reference.compare(a, b));
+        } catch (final Exception exc) {
+            return SignMatrix.THREW;
+        }
+    }
+
+    private static <A> List<A> merge(final List<A> lesser,
+                                     final List<A> equal,
+                                     final List<A> greater) {
+        final List<A> instances = new ArrayList<A>(lesser.size() + equal.size() + greater.size());
+        instances.addAll(lesser);
+        instances.addAll(equal);
+        instances.addAll(greater);
+        return instances;
+    }
+
+    private void verifyKeyChain(final List<A> lesser,
+                                final List<A> equal,
+                                final List<A> greater,
+                                final CheckProgress progress) {
+        final List<A> instances = merge(lesser, equal, greater);
+        // -1 for lesser, 0 for equal and 1 for greater instances
+        final int[] groups = new int[instances.size()];
+        Arrays.fill(groups, 0, lesser.size(), -1);
+        Arrays.fill(groups, lesser.size() + equal.size(), groups.length, 1);
+
+        final KeyTable<A> table = KeyTable.extract(keySegments, instances);
+        final long pairs = (long) table.size() * table.size();
+        for (int segment = 0; segment < table.segments(); segment++) {
+            verifyKeySegmentReverse(table, segment);
+            progress.row(pairs);
+            verifyKeySegmentTransitivity(table, segment);
+            progress.row(pairs);
+        }
+        verifyKeyChainOrder(table, groups);
+        progress.row(pairs);
+        verifyKeyChainDescribesCompareTo(table, progress);
+    }
+
+    // sgn(key(a).compareTo(key(b))) == -sgn(key(b).compareTo(key(a)))
+    private static <A> void verifyKeySegmentReverse(final KeyTable<A> table,
+                                                    final int segment) {
+        for (int first = 0; first < table.size(); first++) {
+            for (int second = first; second < table.size(); second++) {
+                if (table.sign(segment, first, second) != -table.sign(segment, second, first))
+                    throw new ContractViolation(
+                            format("Key chain segment %d does not implement a total order for keys %s and %s!",
+                                    segment + 1, table.key(segment, first), table.key(segment, second)),
+                            table.instance(first), table.instance(second)
+                    );
+            }
+        }
+    }
+
+    // after sorting by a transitive key every key is lesser or equal to all the following ones
+    // and the neighbours comparing equal form runs of keys that are all equal to each other
+    private static <A> void verifyKeySegmentTransitivity(final KeyTable<A> table,
+                                                         final int segment) {
+        final Integer[] order = new Integer[table.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+        try {
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(final Integer first, final Integer second) {
+                    return table.sign(segment, first, second);
+                }
+            });
+        } catch (final IllegalArgumentException exc) {
+            // sort detected that the keys are not ordered consistently
+            throw new ContractViolation(format("Key chain segment %d is not transitive!", segment + 1));
+        }
+
+        // the first position of the run of equal neighbours every position belongs to
+        final int[] runs = new int[order.length];
+        for (int index = 1; index < order.length; index++) {
+            runs[index] = table.sign(segment, order[index - 1], order[index]) == 0 ? runs[index - 1] : index;
+        }
+
+        for (int first = 0; first < order.length; first++) {
+            for (int second = first + 1; second < order.length; second++) {
+                final int sign = table.sign(segment, order[first], order[second]);
+                if (sign > 0 || (sign != 0 && runs[first] == runs[second]))
+                    throw new ContractViolation(
+                            format("Key chain segment %d is not transitive for keys %s and %s!",
+                                    segment + 1, table.key(segment, order[first]), table.key(segment, order[second])),
+                            table.instance(order[first]), table.instance(order[second])
+                    );
+            }
+        }
+    }
+
+    // lesser < equal < greater and equal instances are equal according to the chain
+    private static <A> void verifyKeyChainOrder(final KeyTable<A> table,
+                                                final int[] groups) {
+        for (int first = 0; first < table.size(); first++) {
+            for (int second = first + 1; second < table.size(); second++) {
+                if (groups[first] == groups[second] && groups[first] != 0)
+                    // lesser and greater instances can be in any order among themselves
+                    continue;
 
-        // verify that sgn(a.compareTo(b)) > 0 && sgn(b.compareTo(c)) > 0 => sgn(a.compareTo(c)) > 0
-        verifyTransitivity(lesserInstances, equalInstances, greaterInstances);
+                final int expected = groups[first] - groups[second];
+                final int segment = table.decidingSegment(first, second);
+                final int actual = segment < 0 ? 0 : table.sign(segment, first, second);
+                if (actual == (int) Math.signum(expected))
+                    continue;
 
-        // TODO: test sgn(a.compareTo(c)) == sgn(b.compareTo(c)) => sgn(a.compareTo(b)) == 0
+                if (segment < 0)
+                    throw new ContractViolation(
+                            format("Key chain considers %s and %s equal!", table.instance(first), table.instance(second)),
+                            table.instance(first), table.instance(second)
+                    );
+                throw new ContractViolation(
+                        format("Key chain segment %d breaks the order of %s and %s!",
+                                segment + 1, table.instance(first), table.instance(second)),
+                        table.instance(first), table.instance(second)
+                );
+            }
+        }
+    }
+
+    // compareTo has to agree with the verified chain on every pair, so it is a total order as well
+    private static <A extends Comparable<A>> void verifyKeyChainDescribesCompareTo(final KeyTable<A> table,
+                                                                                   final CheckProgress progress) {
+        for (int first = 0; first < table.size(); first++) {
+            final A a = table.instance(first);
+            for (int second = 0; second < table.size(); second++) {
+                final A b = table.instance(second);
+                final int segment = table.decidingSegment(first, second);
+                final int expected = segment < 0 ? 0 : table.sign(segment, first, second);
+                final int actual;
+                try {
+                    actual = (int) Math.signum(progress.compare(a, b));
+                } catch (final RuntimeException exc) {
+                    throw new ContractViolation(format("Comparing %s to %s threw an exception!", a, b), a, b);
+                }
+                if (actual != expected)
+                    throw new ContractViolation(
+                            format("CompareTo of %s and %s does not agree with the key chain!", a, b),
+                            a, b
+                    );
+            }
+            progress.row(table.size());
+        }
+    }
+
+    // indexes of the instances in the order of compareTo, the comparisons are counted as progress
+    private Integer[] sort(final List<A> instances,
+                           final CheckProgress progress) {
+        final Integer[] order = new Integer[instances.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+        final long[] sortComparisons = new long[1];
+        // the pair compared last is the one the sort detected the violation on
+        final int[] lastPair = new int[2];
+        try {
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(final Integer first, final Integer second) {
+                    final A a = instances.get(first);
+                    final A b = instances.get(second);
+                    sortComparisons[0]++;
+                    lastPair[0] = first;
+                    lastPair[1] = second;
+                    try {
+                        return progress.compare(a, b);
+                    } catch (final RuntimeException exc) {
+                        throw new ContractViolation(format("Comparing %s to %s threw an exception!", a, b), a, b);
+                    }
+                }
+            });
+        } catch (final IllegalArgumentException exc) {
+            // sort detected that the instances are not ordered consistently
+            final A a = instances.get(lastPair[0]);
+            final A b = instances.get(lastPair[1]);
+            throw new ContractViolation(
+                    format("Sorting the instances detected a violation of the general contract of compareTo when comparing %s to %s!",
+                            a, b),
+                    a, b
+            );
+        }
+        progress.rows(0, sortComparisons[0]);
+        return order;
+    }
+
+    // after sorting by a transitive compareTo every instance is lesser or equal
+    // to the following one, lesser < equal < greater and the equal instances
+    // end up next to each other
+    private void verifySortedOrder(final Instances<A> instances,
+                                   final CheckProgress progress) {
+        final List<A> merged = instances.merged;
+        final List<Group<A>> groups = instances.groups();
+        // 0 for lesser, 1 for equal and 2 for greater instances
+        final int[] group = new int[merged.size()];
+        Arrays.fill(group, instances.lesser.size(), instances.lesser.size() + instances.equal.size(), 1);
+        Arrays.fill(group, instances.lesser.size() + instances.equal.size(), group.length, 2);
+
+        final Integer[] order = sort(merged, progress);
+        progress.row(0);
+
+        for (int index = 0; index + 1 < order.length; index++) {
+            final A a = merged.get(order[index]);
+            final A b = merged.get(order[index + 1]);
+            final int first = group[order[index]];
+            final int second = group[order[index + 1]];
+
+            final int signOfAtoB = progress.sign(a, b);
+            if (signOfAtoB != -progress.sign(b, a))
+                throw new ContractViolation("Instances do not implement a total order!", a, b);
+            if (signOfAtoB > 0)
+                throw new ContractViolation(
+                        format("Instances %s and %s are not sorted, compareTo is not transitive!", a, b), a, b
+                );
+            if (first > second)
+                throw new ContractViolation(
+                        format("Instance %s of the %s instances sorts before %s of the %s instances!",
+                                a, groups.get(first).name, b, groups.get(second).name), a, b
+                );
+            if (first != second && signOfAtoB == 0)
+                throw new ContractViolation(
+                        format("Instance %s of the %s instances is equal to %s of the %s instances!",
+                                a, groups.get(first).name, b, groups.get(second).name), a, b
+                );
+            if (first == 1 && second == 1 && signOfAtoB != 0)
+                throw new ContractViolation(format("Equal instances %s and %s are not equal!", a, b), a, b);
+            progress.row(2);
+        }
     }
 
     // sgn(a.compareTo(b)) > 0 && sgn(b.compareTo(c)) > 0 => sgn(a.compareTo(c)) > 0
     private void verifyTransitivity(final List<A> lesser,
                                     final List<A> equal,
-                                    final List<A> greater) {
+                                    final List<A> greater,
+                                    final CheckProgress progress) {
         for (final A la : lesser) {
             for (final A ea : equal) {
                 for (final A ga : greater) {
-                    final int equal_lesser = (int) Math.signum(ea.compareTo(la));
-                    final int greater_equal = (int) Math.signum(ga.compareTo(ea));
-                    final int greater_lesser = (int) Math.signum(ga.compareTo(la));
+                    final int equal_lesser = (int) Math.signum(progress.compare(ea, la));
+                    final int greater_equal = (int) Math.signum(progress.compare(ga, ea));
+                    final int greater_lesser = (int) Math.signum(progress.compare(ga, la));
 
                     final boolean isTransitive =
                             equal_lesser > 0
@@ -241,26 +1881,28 @@ public final class ComparableVerifier<A extends Comparable<A>> {
                                     && greater_lesser > 0;
 
                     if (!isTransitive) {
-                        throw new AssertionError(
-                                format("Instances %s, %s, %s, are not transitive!", la, ea, ga)
+                        throw new ContractViolation(
+                                format("Instances %s, %s, %s, are not transitive!", la, ea, ga), la, ea, ga
                         );
                     }
                 }
             }
+            progress.row(3L * equal.size() * greater.size());
         }
     }
 
     // sgn(a.compareTo(b)) == -sgn(b.compareTo(a))
     // a.compareTo(b) should throw exception iff b.compareTo(a) throws
     private void verifyReverse(final List<A> first,
-                               final List<A> second) {
+                               final List<A> second,
+                               final CheckProgress progress) {
         for (final A a : first) {
             for (final A b : second) {
                 // getting info for sgn(a.compareTo(b)) part
                 int signOfAtoB = Integer.MIN_VALUE;
                 boolean exceptionOnAtoBCompare = false;
                 try {
-                    signOfAtoB = (int) Math.signum(a.compareTo(b));
+                    signOfAtoB = (int) Math.signum(progress.compare(a, b));
                 } catch (final Exception exc) {
                     exceptionOnAtoBCompare = true;
                 }
@@ -269,48 +1911,46 @@ public final class ComparableVerifier<A extends Comparable<A>> {
                 int signOfBtoA = Integer.MAX_VALUE;
                 boolean exceptionOnBtoACompare = false;
                 try {
-                    signOfBtoA = (int) Math.signum(b.compareTo(a));
+                    signOfBtoA = (int) Math.signum(progress.compare(b, a));
                 } catch (final Exception exc) {
                     exceptionOnBtoACompare = true;
                 }
 
                 // if the a.compareTo(b) threw an exception but b.compareTo(a) did not
                 if (exceptionOnAtoBCompare && !exceptionOnBtoACompare) {
-                    throw new AssertionError(
-                            format("Comparing %s to %s threw an exception but %s to %s did not!", a, b, b, a)
+                    throw new ContractViolation(
+                            format("Comparing %s to %s threw an exception but %s to %s did not!", a, b, b, a), a, b
                     );
                 }
                 // if the b.compareTo(a) threw an exception but a.compareTo(b) did not
                 if (!exceptionOnAtoBCompare && exceptionOnBtoACompare) {
-                    throw new AssertionError(
-                            format("Comparing %s to %s threw an exception but %s to %s did not!", b, a, a, b)
+                    throw new ContractViolation(
+                            format("Comparing %s to %s threw an exception but %s to %s did not!", b, a, a, b), a, b
                     );
                 }
                 // if sgn(a.compareTo(b)) != -sgn(b.compareTo(a))
                 if (signOfAtoB != -signOfBtoA) {
-                        throw new AssertionError("Instances do not implement a total order!");
+                        throw new ContractViolation("Instances do not implement a total order!", a, b);
                 }
             }
+            progress.row(2L * second.size());
         }
     }
 
     @SuppressWarnings("ConstantConditions")
-    private void verifyEqualsToNullReturnsFalse(final List<A> instances) {
-        if (suppressEqualsToNullReturnsFalse)
-            return;
-
+    private void verifyEqualsToNullReturnsFalse(final List<A> instances,
+                                                final CheckProgress progress) {
         for (final A instance : instances) {
             if (instance.equals(null)) {
-                throw new AssertionError("Instance is equal to null!");
+                throw new ContractViolation("Instance is equal to null!", instance);
             }
+            progress.row(0);
         }
     }
 
     @SuppressWarnings({"ResultOfMethodCallIgnored", "ConstantConditions"})
-    private void verifyExceptionOnCompareToNull(final List<A> instances) {
-        if (suppressExceptionOnCompareToNull)
-            return;
-
+    private void verifyExceptionOnCompareToNull(final List<A> instances,
+                                                final CheckProgress progress) {
         for (final A instance : instances) {
             boolean contractIsBroken;
             try {
@@ -318,29 +1958,65 @@ public final class ComparableVerifier<A extends Comparable<A>> {
                 contractIsBroken = true;
             } catch (final Exception exc) {
                 // this should throw an exception
+                progress.row(1);
                 continue;
             }
 
             if (contractIsBroken)
-                throw new AssertionError("CompareTo null should throw an exception!");
+                throw new ContractViolation("CompareTo null should throw an exception!", instance);
         }
     }
 
-    private void verifyCompareToConsistentWithEquals(final List<A> instances) {
-        if (suppressConsistentWithEquals)
-            return;
+    // the instances are partitioned into equality classes by hashCode and
+    // equals, so every instance is compared only with the representative of its
+    // class and every representative with its neighbours in the sorted order
+    private void verifyCompareToConsistentWithEquals(final List<A> instances,
+                                                     final CheckProgress progress) {
+        final Map<A, Integer> classes = new HashMap<A, Integer>();
+        final List<A> representatives = new ArrayList<A>();
+        for (final A instance : instances) {
+            final Integer equalityClass = classes.get(instance);
+            if (null == equalityClass) {
+                classes.put(instance, representatives.size());
+                representatives.add(instance);
+                progress.row(0);
+                continue;
+            }
+
+            // equal instances have to be equal according to compareTo, an exception
+            // is reported by the reverse check
+            final A representative = representatives.get(equalityClass);
+            final int sign = progress.sign(representative, instance);
+            if (sign != 0 && sign != SignMatrix.THREW)
+                throw new ContractViolation("CompareTo is not consistent with equals!", representative, instance);
+            progress.row(1);
+        }
 
-        final A instance = instances.get(0);
-        for (final A a : instances) {
-            final boolean equals = instance.equals(a);
-            final boolean compareTo = instance.compareTo(a) == 0;
-            if (equals != compareTo)
-                throw new AssertionError("CompareTo is not consistent with equals!");
+        // instances that are not equal have to be different according to compareTo,
+        // for a transitive compareTo the ones that are not end up next to each other
+        // a failed sort means compareTo is not a total order, which is reported
+        // right away, as the checks that would explain it may be suppressed or
+        // replaced by a key chain
+        final Integer[] order = sort(representatives, progress);
+        for (int index = 0; index + 1 < order.length; index++) {
+            final A a = representatives.get(order[index]);
+            final A b = representatives.get(order[index + 1]);
+            if (progress.sign(a, b) != 0)
+                continue;
+            // equal instances end up in different classes when their hash codes differ
+            if (a.equals(b) && a.hashCode() != b.hashCode())
+                throw new ContractViolation(
+                        format("Equal instances %s and %s have different hash codes, hashCode is not consistent with equals!",
+                                a, b),
+                        a, b
+                );
+            throw new ContractViolation("CompareTo is not consistent with equals!", a, b);
         }
+        progress.rows(0, Math.max(0, order.length - 1));
     }
 
-    private static <A> List<A> verifyInstancesCreator(final VerificationInstancesCreator<A> creator,
-                                                      final String type) {
+    static <A> List<A> verifyInstancesCreator(final VerificationInstancesCreator<A> creator,
+                                              final String type) {
         if (null == creator)
             throw new IllegalArgumentException("VerificationInstancesCreator (" + type + ") cannot be null!");
 
@@ -358,4 +2034,191 @@ public final class ComparableVerifier<A extends Comparable<A>> {
 
         return instances;
     }
+
+    private static final class Group<A> {
+        final String name;
+        final List<A> instances;
+
+        Group(final String name, final List<A> instances) {
+            this.name = name;
+            this.instances = instances;
+        }
+    }
+
+    private static final class Instances<A> {
+        final List<A> lesser;
+        final List<A> equal;
+        final List<A> greater;
+        final List<A> merged;
+
+        Instances(final List<A> lesser, final List<A> equal, final List<A> greater) {
+            this.lesser = lesser;
+            this.equal = equal;
+            this.greater = greater;
+            this.merged = merge(lesser, equal, greater);
+        }
+
+        Instances<A> sample(final double fraction) {
+            return new Instances<A>(
+                    StrategySelector.sample(lesser, fraction, 1, SAMPLE_SEED),
+                    StrategySelector.sample(equal, fraction, 2, SAMPLE_SEED),
+                    StrategySelector.sample(greater, fraction, 1, SAMPLE_SEED)
+            );
+        }
+
+        List<Group<A>> groups() {
+            final List<Group<A>> groups = new ArrayList<Group<A>>(3);
+            groups.add(new Group<A>("lesser", lesser));
+            groups.add(new Group<A>("equal", equal));
+            groups.add(new Group<A>("greater", greater));
+            return groups;
+        }
+    }
+
+    // a check reporting the comparisons it expects to the metrics before any check starts
+    private interface MeteredCheck extends VerificationCheck {
+        void expect(VerificationMetrics metrics);
+    }
+
+    private abstract class Check implements MeteredCheck {
+        private final String rule;
+        private final String name;
+        private final long rows;
+        // estimate reported by the metrics before the check starts, 0 if unknown
+        private final long expectedComparisons;
+
+        Check(final String rule, final String name, final long rows, final long expectedComparisons) {
+            this.rule = rule;
+            this.name = name;
+            this.rows = rows;
+            this.expectedComparisons = expectedComparisons;
+        }
+
+        @Override
+        public String rule() {
+            return rule;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void run() {
+            final CheckProgress progress = new CheckProgress(this, rows, listener, cancellation);
+            progress.cancellationPoint();
+            final VerificationMetrics metrics = ComparableVerifier.this.metrics;
+            if (null != metrics)
+                metrics.checkStarted(progress);
+            if (null != listener)
+                listener.checkStarted(this);
+            try {
+                perform(progress);
+            } catch (final RuntimeException exc) {
+                failed(progress, metrics, exc);
+                throw exc;
+            } catch (final Error error) {
+                failed(progress, metrics, error);
+                throw error;
+            }
+            if (null != metrics)
+                metrics.checkEnded(progress, false);
+            if (null != listener)
+                listener.checkFinished(this, progress.elapsedNanos());
+        }
+
+        private void failed(final CheckProgress progress,
+                            final VerificationMetrics metrics,
+                            final Throwable failure) {
+            if (null != metrics)
+                metrics.checkEnded(progress, failure instanceof AssertionError);
+            if (null != listener)
+                listener.checkFailed(this, failure);
+        }
+
+        @Override
+        public void expect(final VerificationMetrics metrics) {
+            metrics.expect(this, expectedComparisons);
+        }
+
+        void perform(final CheckProgress progress) {
+            execute(progress);
+        }
+
+        abstract void execute(CheckProgress progress);
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // blocks of the pair space run by a single executor for the whole verification
+    private final class ConcurrentChecks implements MeteredCheck {
+        private final List<Check> blocks;
+
+        ConcurrentChecks(final List<Check> blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public String rule() {
+            return "concurrentBlocks";
+        }
+
+        @Override
+        public void expect(final VerificationMetrics metrics) {
+            for (final Check block : blocks) {
+                block.expect(metrics);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "concurrent blocks";
+        }
+
+        @Override
+        public void run() {
+            ParallelRows.run(blocks.size(), new ParallelRows.RowTask() {
+                @Override
+                public void run(final int row) {
+                    blocks.get(row).run();
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return name();
+        }
+    }
+
+    // records the violations found in the given instances in the replay corpus
+    private abstract class ContractCheck extends Check {
+        private final Instances<A> recorded;
+
+        ContractCheck(final String rule,
+                      final String name,
+                      final long rows,
+                      final long expectedComparisons,
+                      final Instances<A> recorded) {
+            super(rule, name, rows, expectedComparisons);
+            this.recorded = recorded;
+        }
+
+        @Override
+        void perform(final CheckProgress progress) {
+            try {
+                execute(progress);
+            } catch (final ContractViolation violation) {
+                if (null != shrinker && null != recorded)
+                    throw shrink(rule(), violation, recorded);
+                if (null != replayCorpus && null != recorded)
+                    recordCounterexample(violation, recorded);
+                throw violation;
+            }
+        }
+    }
 }
@@ -0,0 +1,72 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the results of {@code compareTo} calls by the identity of the
+ * compared instances, including the exceptions thrown, so comparisons that
+ * were already evaluated are not run again. Safe to use from many threads.
+ */
+final class ComparisonCache {
+    private final ConcurrentMap<Pair, Object> results = new ConcurrentHashMap<Pair, Object>();
+
+    <A extends Comparable<A>> int compare(final A a, final A b) {
+        final Pair pair = new Pair(a, b);
+        Object result = results.get(pair);
+        if (null == result) {
+            try {
+                result = a.compareTo(b);
+            } catch (final RuntimeException exc) {
+                result = exc;
+            }
+            results.putIfAbsent(pair, result);
+        }
+        if (result instanceof RuntimeException)
+            throw (RuntimeException) result;
+        return (Integer) result;
+    }
+
+    int size() {
+        return results.size();
+    }
+
+    private static final class Pair {
+        private final Object first;
+        private final Object second;
+
+        Pair(final Object first, final Object second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Pair))
+                return false;
+
+            final Pair that = (Pair) other;
+            return first == that.first && second == that.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(first) + System.identityHashCode(second);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Bounds of the growth of the {@code compareTo} cost verified by
+ * {@link ComplexityVerifier}.
+ * <p>
+ * The growth is described by the exponent {@code k} of the power law
+ * {@code time ~ n^k} fitted to the measurements, so every bound is the largest
+ * accepted exponent. The bounds include a tolerance for the measurement noise,
+ * which also means that {@link #CONSTANT} and {@link #LOGARITHMIC} can only
+ * be told apart on a wide range of sizes.
+ */
+public enum Complexity {
+    /**
+     * O(1), accepts exponents up to 0.2.
+     */
+    CONSTANT("O(1)", 0.2),
+    /**
+     * O(log n), accepts exponents up to 0.45.
+     */
+    LOGARITHMIC("O(log n)", 0.45),
+    /**
+     * O(n), accepts exponents up to 1.2.
+     */
+    LINEAR("O(n)", 1.2),
+    /**
+     * O(n log n), accepts exponents up to 1.4.
+     */
+    LINEARITHMIC("O(n log n)", 1.4),
+    /**
+     * O(n^2), accepts exponents up to 2.2.
+     */
+    QUADRATIC("O(n^2)", 2.2);
+
+    private final String notation;
+    private final double maxExponent;
+
+    Complexity(final String notation, final double maxExponent) {
+        this.notation = notation;
+        this.maxExponent = maxExponent;
+    }
+
+    /**
+     * Returns the largest fitted growth exponent accepted by this bound.
+     *
+     * @return largest accepted exponent.
+     */
+    public double maxExponent() {
+        return maxExponent;
+    }
+
+    @Override
+    public String toString() {
+        return notation;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * {@code ComplexityVerifier} is a tool that can be used in unit tests to verify
+ * that the cost of {@code compareTo} does not grow faster than expected with
+ * the size of the compared instances, e.g. that a {@code compareTo} walking a
+ * whole list is caught when a cached prefix should be compared instead.
+ * <p>
+ * The instances are created by a {@link SizedInstancesCreator} for sizes
+ * growing geometrically. For every size all ordered pairs of the created
+ * instances are compared repeatedly, the fastest of the timed batches is
+ * taken as the cost of a single call, and the exponent {@code k} of
+ * {@code time ~ n^k} is fitted to the results with least squares on the
+ * logarithmic scale. If the exponent exceeds the declared {@link Complexity}
+ * an {@link AssertionError} is thrown.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * ComplexityVerifier
+ *     .forCreator(new SizedInstancesCreator<Path>() {
+ *         public List<Path> create(final int size) {
+ *             return Arrays.asList(Path.ofDepth(size, "a"), Path.ofDepth(size, "b"));
+ *         }
+ *     })
+ *     .sizes(16, 65536)
+ *     .bound(Complexity.CONSTANT)
+ *     .verify();
+ * }
+ * </pre>
+ *
+ * @param <A> type of the class under test
+ * @see Complexity
+ * @see SizedInstancesCreator
+ */
+public final class ComplexityVerifier<A extends Comparable<A>> {
+    private static final long BATCH_NANOS = 2000000L;
+    private static final int TIMED_BATCHES = 7;
+
+    private final SizedInstancesCreator<A> creator;
+
+    private int smallestSize = 16;
+    private int largestSize = 16384;
+    private Complexity bound = Complexity.LINEAR;
+
+    private ComplexityVerifier(final SizedInstancesCreator<A> creator) {
+        this.creator = creator;
+    }
+
+    /**
+     * Creates an instance of the {@link ComplexityVerifier}.
+     *
+     * @param creator factory of the instances of a given size
+     * @param <A>     type of the class under test
+     * @return instance of {@link ComplexityVerifier}
+     */
+    public static <A extends Comparable<A>> ComplexityVerifier<A> forCreator(
+            final SizedInstancesCreator<A> creator) {
+        if (null == creator)
+            throw new IllegalArgumentException("SizedInstancesCreator cannot be null!");
+
+        return new ComplexityVerifier<A>(creator);
+    }
+
+    /**
+     * Sets the range of the sizes. The sizes start with the smallest one and
+     * are doubled for as long as they do not exceed the largest one. Defaults
+     * to 16 and 16384.
+     *
+     * @param smallest positive smallest size.
+     * @param largest  largest size, at least four times the smallest one.
+     * @return instance of {@link ComplexityVerifier}
+     */
+    public ComplexityVerifier<A> sizes(final int smallest, final int largest) {
+        if (smallest <= 0)
+            throw new IllegalArgumentException("Sizes have to be positive!");
+        if (largest / 4 < smallest)
+            throw new IllegalArgumentException("Largest size has to be at least four times the smallest size!");
+
+        smallestSize = smallest;
+        largestSize = largest;
+        return this;
+    }
+
+    /**
+     * Sets the bound the growth of the {@code compareTo} cost cannot exceed.
+     * Defaults to {@link Complexity#LINEAR}.
+     *
+     * @param complexity accepted growth.
+     * @return instance of {@link ComplexityVerifier}
+     */
+    public ComplexityVerifier<A> bound(final Complexity complexity) {
+        if (null == complexity)
+            throw new IllegalArgumentException("Complexity cannot be null!");
+
+        bound = complexity;
+        return this;
+    }
+
+    /**
+     * Measures the cost of {@code compareTo} for the growing sizes and
+     * verifies that its growth does not exceed the bound.
+     */
+    public void verify() {
+        final List<Integer> sizes = new ArrayList<Integer>();
+        for (long size = smallestSize; size <= largestSize; size *= 2) {
+            sizes.add((int) size);
+        }
+
+        final Blackhole blackhole = new Blackhole();
+        final double[] logSizes = new double[sizes.size()];
+        final double[] logTimes = new double[sizes.size()];
+        final StringBuilder measurements = new StringBuilder();
+        for (int index = 0; index < sizes.size(); index++) {
+            final int size = sizes.get(index);
+            final List<A> instances = ComparableVerifier.verifyInstancesCreator(
+                    new VerificationInstancesCreator<A>() {
+                        @Override
+                        public List<A> create() {
+                            return creator.create(size);
+                        }
+                    },
+                    "size " + size
+            );
+            final double nanosPerCall = measure(instances, blackhole);
+            logSizes[index] = Math.log(size);
+            logTimes[index] = Math.log(nanosPerCall);
+            measurements.append(format("%n  size %d: %.1f ns per call", size, nanosPerCall));
+        }
+        blackhole.publish();
+
+        final double exponent = slope(logSizes, logTimes);
+        if (exponent > bound.maxExponent())
+            throw new AssertionError(
+                    format("CompareTo cost grows as O(n^%.2f) which exceeds the %s bound!%s",
+                            exponent, bound, measurements)
+            );
+    }
+
+    private static <A extends Comparable<A>> double measure(final List<A> instances,
+                                                            final Blackhole blackhole) {
+        final long callsPerPass = (long) instances.size() * instances.size();
+
+        // grow the batch until it takes long enough to be timed reliably,
+        // which also serves as the warmup
+        int passes = 1;
+        while (timePasses(instances, passes, blackhole) < BATCH_NANOS && passes < Integer.MAX_VALUE / 2) {
+            passes *= 2;
+        }
+
+        final long[] elapsed = new long[TIMED_BATCHES];
+        for (int batch = 0; batch < TIMED_BATCHES; batch++) {
+            elapsed[batch] = Math.max(1L, timePasses(instances, passes, blackhole));
+        }
+        // the fastest batch is the least disturbed by the noise
+        Arrays.sort(elapsed);
+        return (double) elapsed[0] / (callsPerPass * passes);
+    }
+
+    private static <A extends Comparable<A>> long timePasses(final List<A> instances,
+                                                             final int passes,
+                                                             final Blackhole blackhole) {
+        final long start = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (int first = 0; first < instances.size(); first++) {
+                final A a = instances.get(first);
+                for (int second = 0; second < instances.size(); second++) {
+                    blackhole.consume(a.compareTo(instances.get(second)));
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // least squares slope of y = slope * x + intercept
+    private static double slope(final double[] x, final double[] y) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int index = 0; index < x.length; index++) {
+            meanX += x[index];
+            meanY += y[index];
+        }
+        meanX /= x.length;
+        meanY /= y.length;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int index = 0; index < x.length; index++) {
+            covariance += (x[index] - meanX) * (y[index] - meanY);
+            variance += (x[index] - meanX) * (x[index] - meanX);
+        }
+        return covariance / variance;
+    }
+}
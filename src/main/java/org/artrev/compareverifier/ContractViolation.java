@@ -0,0 +1,35 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * {@link AssertionError} thrown by the {@link ComparableVerifier} checks that
+ * additionally remembers which instances broke the contract.
+ */
+final class ContractViolation extends AssertionError {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object[] instances;
+
+    ContractViolation(final String message, final Object... instances) {
+        super(message);
+        this.instances = instances;
+    }
+
+    Object[] instances() {
+        return instances;
+    }
+}
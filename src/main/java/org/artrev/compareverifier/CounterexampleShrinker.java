@@ -0,0 +1,161 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches for the smallest counterexample that still breaks the same rule.
+ * <p>
+ * Every round builds all the variants of the current counterexample that
+ * differ in a single step, either a removed instance or an instance replaced
+ * by one of its shrunk candidates, and evaluates them on all available
+ * processors. The first failing variant, in the order they were built,
+ * becomes the current counterexample, so the result does not depend on the
+ * timing of the threads. The search ends when no variant fails.
+ * <p>
+ * The variants share most of their instances, so the comparisons are cached
+ * by the identity of the instances, as are the shrunk candidates of every
+ * instance.
+ */
+final class CounterexampleShrinker<A> {
+    // guards against shrinkers whose candidates are not strictly smaller
+    private static final int MAX_ROUNDS = 1000;
+
+    interface Oracle<A> {
+        // the violation of the rule by the given groups or null when there is none
+        ContractViolation violation(List<List<A>> groups, ComparisonCache cache);
+    }
+
+    private final Shrinker<A> shrinker;
+    private final Oracle<A> oracle;
+    private final ComparisonCache cache = new ComparisonCache();
+    private final Map<A, List<A>> candidates = new IdentityHashMap<A, List<A>>();
+
+    CounterexampleShrinker(final Shrinker<A> shrinker, final Oracle<A> oracle) {
+        this.shrinker = shrinker;
+        this.oracle = oracle;
+    }
+
+    static final class Result<A> {
+        final List<List<A>> groups;
+        final ContractViolation violation;
+        final int steps;
+
+        Result(final List<List<A>> groups, final ContractViolation violation, final int steps) {
+            this.groups = groups;
+            this.violation = violation;
+            this.steps = steps;
+        }
+    }
+
+    Result<A> shrink(final List<List<A>> groups, final ContractViolation violation) {
+        List<List<A>> current = groups;
+        ContractViolation currentViolation = violation;
+        int steps = 0;
+        while (steps < MAX_ROUNDS) {
+            final List<List<List<A>>> variants = variants(current);
+            final ContractViolation[] violations = new ContractViolation[variants.size()];
+            final int failing = firstFailing(variants, violations);
+            if (failing < 0)
+                break;
+
+            current = variants.get(failing);
+            currentViolation = violations[failing];
+            steps++;
+        }
+        return new Result<A>(current, currentViolation, steps);
+    }
+
+    int cachedComparisons() {
+        return cache.size();
+    }
+
+    // removals first, as they make the counterexample smaller the most
+    private List<List<List<A>>> variants(final List<List<A>> groups) {
+        final List<List<List<A>>> variants = new ArrayList<List<List<A>>>();
+        for (int group = 0; group < groups.size(); group++) {
+            if (groups.get(group).size() < 2)
+                continue;
+            for (int index = 0; index < groups.get(group).size(); index++) {
+                final List<List<A>> variant = copy(groups);
+                variant.get(group).remove(index);
+                variants.add(variant);
+            }
+        }
+        for (int group = 0; group < groups.size(); group++) {
+            for (int index = 0; index < groups.get(group).size(); index++) {
+                for (final A candidate : candidates(groups.get(group).get(index))) {
+                    final List<List<A>> variant = copy(groups);
+                    variant.get(group).set(index, candidate);
+                    variants.add(variant);
+                }
+            }
+        }
+        return variants;
+    }
+
+    private List<A> candidates(final A instance) {
+        List<A> shrunk = candidates.get(instance);
+        if (null == shrunk) {
+            shrunk = shrinker.shrink(instance);
+            if (null == shrunk)
+                throw new IllegalArgumentException("Shrinker cannot return null candidates!");
+            for (final A candidate : shrunk) {
+                if (null == candidate)
+                    throw new IllegalArgumentException("Shrinker cannot return null candidates!");
+            }
+            candidates.put(instance, shrunk);
+        }
+        return shrunk;
+    }
+
+    private int firstFailing(final List<List<List<A>>> variants,
+                             final ContractViolation[] violations) {
+        final AtomicInteger first = new AtomicInteger(variants.size());
+        ParallelRows.run(variants.size(), new ParallelRows.RowTask() {
+            @Override
+            public void run(final int row) {
+                // rows are handed out in order, the ones after a failing variant are skipped
+                if (row > first.get())
+                    return;
+
+                final ContractViolation violation = oracle.violation(variants.get(row), cache);
+                if (null == violation)
+                    return;
+
+                violations[row] = violation;
+                int current = first.get();
+                while (row < current && !first.compareAndSet(current, row)) {
+                    current = first.get();
+                }
+            }
+        });
+        return first.get() < variants.size() ? first.get() : -1;
+    }
+
+    private static <A> List<List<A>> copy(final List<List<A>> groups) {
+        final List<List<A>> copy = new ArrayList<List<A>>(groups.size());
+        for (final List<A> group : groups) {
+            copy.add(new ArrayList<A>(group));
+        }
+        return copy;
+    }
+}
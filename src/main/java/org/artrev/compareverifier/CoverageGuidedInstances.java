@@ -0,0 +1,289 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * Generates a small pool of instances that together reach as many branches
+ * of {@code compareTo} as random instances reach, and splits it into the
+ * lesser, equal and greater instances needed by {@link ComparableVerifier}.
+ * <p>
+ * The candidates are drawn from an {@link InstanceGenerator}, every one from
+ * a random generator with its own seed. Every candidate is compared both ways
+ * with itself and with all the instances kept so far, and it is kept only
+ * when the comparisons cover probes of the class under test that the
+ * comparisons of no kept instance covered. The first three candidates are
+ * always kept. Random instances mostly repeat the shallow branches, so the
+ * kept pool is a fraction of the candidates and the checks need far fewer
+ * comparisons for the same bugs.
+ * <p>
+ * The coverage is read from the class under test as instrumented by the
+ * JaCoCo agent the JVM runs with, e.g. the one the Gradle {@code jacoco}
+ * plugin attaches to the tests. While the pool is generated, the class
+ * records its probes in a private array instead of the one of the agent, and
+ * the array is cleared right before the comparisons of every candidate. So
+ * neither the coverage of other tests nor the generation of the candidate
+ * counts, the pool does not depend on the order of the tests, and the
+ * coverage of the agent is never reset. The collected probes are added to
+ * the agent once the pool is generated, so the coverage reports stay
+ * complete. Code of the class that other threads run during the generation
+ * is counted as well, so the pool is only the same in every run when nothing
+ * else uses the class meanwhile. The probes cover the whole class, not only
+ * {@code compareTo}, but only the code the comparisons run is reached. Probes
+ * of nested classes are not taken into account.
+ * <p>
+ * The pool is sorted with {@code compareTo} and its median is the pivot.
+ * The instances ordered before it are the lesser, the ones after it the
+ * greater, and the instances equal to it, including two copies of the pivot
+ * generated with its seed, the equal instances. All the instances are
+ * generated again on every call of the creators.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * final CoverageGuidedInstances<Money> money = VerificationInstancesCreators
+ *         .coverageGuided(Money.class, new InstanceGenerator<Money>() {
+ *             public Money generate(final Random random) {
+ *                 return Money.of(CURRENCIES[random.nextInt(3)], random.nextLong());
+ *             }
+ *         });
+ *
+ * ComparableVerifier
+ *     .forInstances(money.lesser(), money.equal(), money.greater())
+ *     .verify();
+ * }
+ * </pre>
+ *
+ * @param <A> type of the class under test
+ * @see VerificationInstancesCreators#coverageGuided(Class, InstanceGenerator)
+ */
+public final class CoverageGuidedInstances<A extends Comparable<A>> {
+    private static final int DEFAULT_CANDIDATES = 1000;
+    private static final int DEFAULT_POOL_SIZE = 64;
+    private static final int MIN_POOL_SIZE = 3;
+    private static final long SEED = 42L;
+
+    private final Class<A> type;
+    private final InstanceGenerator<A> generator;
+    private final CoverageProbe probe;
+    private int candidates = DEFAULT_CANDIDATES;
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    // seeds of the kept instances, chosen on the first use
+    private long[] lesserSeeds;
+    private long[] equalSeeds;
+    private long[] greaterSeeds;
+
+    CoverageGuidedInstances(final Class<A> type,
+                            final InstanceGenerator<A> generator,
+                            final CoverageProbe probe) {
+        this.type = type;
+        this.generator = generator;
+        this.probe = probe;
+    }
+
+    /**
+     * Sets the number of generated candidates, by default 1000.
+     *
+     * @param candidates at least 3 candidates.
+     * @return instance of {@link CoverageGuidedInstances}
+     */
+    public CoverageGuidedInstances<A> candidates(final int candidates) {
+        checkNotBuilt();
+        if (candidates < MIN_POOL_SIZE)
+            throw new IllegalArgumentException("Number of candidates has to be at least 3!");
+
+        this.candidates = candidates;
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of kept instances, by default 64. The
+     * generation stops once the pool is full.
+     *
+     * @param poolSize at least 3 instances.
+     * @return instance of {@link CoverageGuidedInstances}
+     */
+    public CoverageGuidedInstances<A> poolSize(final int poolSize) {
+        checkNotBuilt();
+        if (poolSize < MIN_POOL_SIZE)
+            throw new IllegalArgumentException("Pool size has to be at least 3!");
+
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    /**
+     * @return creator of the instances ordered before the pivot.
+     */
+    public VerificationInstancesCreator<A> lesser() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return generate(lesserSeeds);
+            }
+        };
+    }
+
+    /**
+     * @return creator of the instances equal to the pivot, including two
+     * copies of it.
+     */
+    public VerificationInstancesCreator<A> equal() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return generate(equalSeeds);
+            }
+        };
+    }
+
+    /**
+     * @return creator of the instances ordered after the pivot.
+     */
+    public VerificationInstancesCreator<A> greater() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return generate(greaterSeeds);
+            }
+        };
+    }
+
+    private void checkNotBuilt() {
+        if (null != equalSeeds)
+            throw new IllegalStateException("CoverageGuidedInstances cannot be changed after the instances were created!");
+    }
+
+    private synchronized void build() {
+        if (null != equalSeeds)
+            return;
+
+        final CoverageProbe coverage = null != probe ? probe : JacocoCoverage.forClass(type);
+        if (null == coverage)
+            throw new IllegalStateException(
+                    format("Coverage guided generation of %s requires the JVM to run with the JaCoCo agent!", type.getName())
+            );
+
+        final List<Long> seeds = new ArrayList<Long>();
+        final List<A> pool = new ArrayList<A>();
+        final Random random = new Random(SEED);
+        // union of the probes reached by the comparisons of the kept instances
+        final BitSet covered = new BitSet();
+        coverage.start();
+        try {
+            for (int candidate = 0; candidate < candidates && pool.size() < poolSize; candidate++) {
+                final long seed = random.nextLong();
+                final A instance = generator.generate(new Random(seed));
+                coverage.reset();
+                exercise(instance, pool);
+
+                final BitSet reached = coverage.covered();
+                final BitSet added = (BitSet) reached.clone();
+                added.andNot(covered);
+                if (pool.size() < MIN_POOL_SIZE || !added.isEmpty()) {
+                    seeds.add(seed);
+                    pool.add(instance);
+                    covered.or(reached);
+                }
+            }
+        } finally {
+            coverage.stop();
+        }
+        split(seeds, pool);
+    }
+
+    // compareTo is expected to throw for some instances, the checks report it
+    private static <A extends Comparable<A>> void exercise(final A candidate, final List<A> pool) {
+        SignMatrix.sign(candidate, candidate);
+        for (final A kept : pool) {
+            SignMatrix.sign(candidate, kept);
+            SignMatrix.sign(kept, candidate);
+        }
+    }
+
+    private void split(final List<Long> seeds, final List<A> pool) {
+        final Integer[] order = sortedOrder(pool);
+        final int pivot = order[order.length / 2];
+        final A pivotInstance = pool.get(pivot);
+
+        final List<Long> lesser = new ArrayList<Long>();
+        final List<Long> equal = new ArrayList<Long>();
+        final List<Long> greater = new ArrayList<Long>();
+        equal.add(seeds.get(pivot));
+        equal.add(seeds.get(pivot));
+        for (final Integer index : order) {
+            if (index == pivot)
+                continue;
+
+            final int sign = SignMatrix.sign(pool.get(index), pivotInstance);
+            if (sign < 0)
+                lesser.add(seeds.get(index));
+            else if (sign == 0)
+                equal.add(seeds.get(index));
+            else
+                greater.add(seeds.get(index));
+        }
+        if (lesser.isEmpty() || greater.isEmpty())
+            throw new IllegalStateException(
+                    format("Generated instances of %s have to contain instances lesser and greater than the median!", type.getName())
+            );
+
+        lesserSeeds = toArray(lesser);
+        greaterSeeds = toArray(greater);
+        equalSeeds = toArray(equal);
+    }
+
+    // insertion sort, which unlike Collections.sort never fails for a broken compareTo
+    private static <A extends Comparable<A>> Integer[] sortedOrder(final List<A> pool) {
+        final Integer[] order = new Integer[pool.size()];
+        for (int index = 0; index < order.length; index++) {
+            final A instance = pool.get(index);
+            int position = index;
+            while (position > 0 && SignMatrix.sign(pool.get(order[position - 1]), instance) > 0) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = index;
+        }
+        return order;
+    }
+
+    private static long[] toArray(final List<Long> values) {
+        final long[] array = new long[values.size()];
+        for (int index = 0; index < array.length; index++) {
+            array[index] = values.get(index);
+        }
+        return array;
+    }
+
+    private List<A> generate(final long[] seeds) {
+        final List<A> instances = new ArrayList<A>(seeds.length);
+        for (final long seed : seeds) {
+            instances.add(generator.generate(new Random(seed)));
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.BitSet;
+
+/**
+ * Source of the code coverage of the class under test, every covered probe,
+ * e.g. a branch, is a set bit. The probes are measured apart from the
+ * coverage the rest of the JVM collects, e.g. other tests running at the same
+ * time, which neither sees nor loses the measured coverage.
+ */
+interface CoverageProbe {
+    // starts collecting the probes of the class apart from the rest of the JVM
+    void start();
+
+    // unsets the collected probes, so only the code run afterwards is covered
+    void reset();
+
+    // probes covered since the last reset
+    BitSet covered();
+
+    // stops collecting and adds the collected probes to the coverage of the JVM
+    void stop();
+}
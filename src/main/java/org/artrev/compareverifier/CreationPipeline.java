@@ -0,0 +1,117 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the instances creators concurrently, one thread each, and hands out
+ * the created groups of instances in the order they complete, so the checks
+ * of a group can start while the other groups are still being created.
+ */
+final class CreationPipeline<A> {
+    private static final long POLL_MILLIS = 100L;
+
+    private final ExecutorService executor;
+    private final CompletionService<Integer> completion;
+    private final List<List<A>> created;
+    private final CancellationToken cancellation;
+    private int pending;
+
+    private CreationPipeline(final int groups, final CancellationToken cancellation) {
+        this.executor = Executors.newFixedThreadPool(groups);
+        this.completion = new ExecutorCompletionService<Integer>(executor);
+        this.created = new ArrayList<List<A>>(groups);
+        this.cancellation = cancellation;
+        for (int group = 0; group < groups; group++) {
+            created.add(null);
+        }
+    }
+
+    static <A> CreationPipeline<A> start(final List<Callable<List<A>>> creators,
+                                         final CancellationToken cancellation) {
+        final CreationPipeline<A> pipeline = new CreationPipeline<A>(creators.size(), cancellation);
+        for (int group = 0; group < creators.size(); group++) {
+            pipeline.submit(group, creators.get(group));
+        }
+        return pipeline;
+    }
+
+    private void submit(final int group, final Callable<List<A>> creator) {
+        completion.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                created.set(group, creator.call());
+                return group;
+            }
+        });
+        pending++;
+    }
+
+    boolean hasNext() {
+        return pending > 0;
+    }
+
+    // waits for the next created group and returns its index
+    int next() {
+        if (!hasNext())
+            throw new IllegalStateException("All instances have already been created!");
+
+        try {
+            Future<Integer> done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            while (null == done) {
+                if (null != cancellation)
+                    cancellation.throwIfCancelled();
+                done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            pending--;
+            return done.get();
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Instances creation was interrupted!", exc);
+        } catch (final ExecutionException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Instances could not be created!", cause);
+        }
+    }
+
+    void awaitAll() {
+        while (hasNext()) {
+            next();
+        }
+    }
+
+    List<A> get(final int group) {
+        return created.get(group);
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+}
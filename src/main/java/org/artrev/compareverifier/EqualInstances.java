@@ -0,0 +1,43 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a static method without parameters that supplies the <b>equal
+ * instances</b> of a {@link Comparable} type for {@link ComparableDiscovery}.
+ * The method has to return either a {@link java.util.List} of the instances or
+ * a {@link VerificationInstancesCreator}.
+ *
+ * @see ComparableDiscovery
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface EqualInstances {
+    /**
+     * Returns the verified type, by default the class declaring the method.
+     * Setting it allows to keep the factories in a separate fixture class.
+     *
+     * @return verified {@link Comparable} type.
+     */
+    Class<?> value() default void.class;
+}
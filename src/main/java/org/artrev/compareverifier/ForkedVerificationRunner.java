@@ -0,0 +1,541 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.lang.String.format;
+
+/**
+ * Verifies fixture providers in forked JVMs, so the static state a verified
+ * type leaves behind, e.g. a cache, affects neither the timing nor the memory
+ * of the other types. Every provider is verified in a fresh JVM, while up to
+ * the configured number of JVMs run at the same time.
+ * <p>
+ * A fixture provider is a class that either declares a public static
+ * {@code verifier()} method returning a configured {@link ComparableVerifier},
+ * e.g. a class generated by the annotation processor, or declares static
+ * methods annotated with {@link LesserInstances}, {@link EqualInstances} and
+ * {@link GreaterInstances}, see {@link ComparableDiscovery}.
+ * <p>
+ * The results are written to a JSON report as soon as every forked JVM ends,
+ * followed by the totals once all the providers are verified:
+ * <pre>
+ * {@code
+ * {
+ *   "results": [
+ *     {"provider": "com.example.Money", "status": "passed", "elapsedMillis": 412},
+ *     {"provider": "com.example.Rate", "status": "failed", "elapsedMillis": 388, "message": "..."}
+ *   ],
+ *   "passed": 1,
+ *   "failed": 1,
+ *   "errors": 0,
+ *   "elapsedMillis": 803
+ * }
+ * }
+ * </pre>
+ * A provider fails when the verification finds a violation and ends with an
+ * error when it cannot be verified at all, e.g. when the class is missing, the
+ * forked JVM cannot be started or crashes, or its result is malformed.
+ * <p>
+ * <b>Command Line Usage:</b>
+ * <pre>
+ * {@code
+ * java -cp <classpath> org.artrev.compareverifier.ForkedVerificationRunner \
+ *     [--forks <n>] [--jvm-arg <argument>]... [--classpath <classpath>] [--report <file>] \
+ *     <provider>...
+ * }
+ * </pre>
+ * The report is written to the standard output when no file is given. The
+ * exit code is 0 when all the providers pass, 1 otherwise and 2 for wrong
+ * arguments.
+ *
+ * @see ComparableDiscovery
+ */
+public final class ForkedVerificationRunner {
+    private static final String RESULT_MARKER = "##compareverifier-result";
+    private static final String WORKER_OPTION = "--worker";
+    private static final String PASSED = "passed";
+    private static final String FAILED = "failed";
+    private static final String ERROR = "error";
+    // lines of the output of a crashed JVM kept for the report
+    private static final int OUTPUT_TAIL_LINES = 20;
+
+    private final List<String> providers;
+    private int forks = ParallelRows.defaultThreads();
+    private final List<String> jvmArguments = new ArrayList<String>();
+    private String classpath = System.getProperty("java.class.path");
+
+    private ForkedVerificationRunner(final List<String> providers) {
+        this.providers = providers;
+    }
+
+    /**
+     * Creates a runner verifying the given fixture providers.
+     *
+     * @param providers binary names of the fixture provider classes.
+     * @return instance of {@link ForkedVerificationRunner}
+     */
+    public static ForkedVerificationRunner forProviders(final String... providers) {
+        if (null == providers || providers.length == 0)
+            throw new IllegalArgumentException("At least one fixture provider has to be given!");
+        for (final String provider : providers) {
+            if (null == provider || provider.length() == 0)
+                throw new IllegalArgumentException("Fixture provider name cannot be null or empty!");
+        }
+
+        return new ForkedVerificationRunner(Arrays.asList(providers.clone()));
+    }
+
+    /**
+     * Sets the maximal number of JVMs running at the same time, by default
+     * the number of available processors.
+     *
+     * @param forks positive number of JVMs.
+     * @return instance of {@link ForkedVerificationRunner}
+     */
+    public ForkedVerificationRunner forks(final int forks) {
+        if (forks <= 0)
+            throw new IllegalArgumentException("Number of forks has to be positive!");
+
+        this.forks = forks;
+        return this;
+    }
+
+    /**
+     * Adds an argument of the forked JVMs, e.g. {@code -Xmx256m}.
+     *
+     * @param argument argument of the forked JVMs.
+     * @return instance of {@link ForkedVerificationRunner}
+     */
+    public ForkedVerificationRunner jvmArgument(final String argument) {
+        if (null == argument || argument.length() == 0)
+            throw new IllegalArgumentException("JVM argument cannot be null or empty!");
+
+        jvmArguments.add(argument);
+        return this;
+    }
+
+    /**
+     * Sets the class path of the forked JVMs, by default the class path of
+     * the running JVM. It has to contain both this library and the providers.
+     *
+     * @param classpath class path of the forked JVMs.
+     * @return instance of {@link ForkedVerificationRunner}
+     */
+    public ForkedVerificationRunner classpath(final String classpath) {
+        if (null == classpath || classpath.length() == 0)
+            throw new IllegalArgumentException("Class path cannot be null or empty!");
+
+        this.classpath = classpath;
+        return this;
+    }
+
+    /**
+     * Verifies all the providers and writes the report, every result as soon
+     * as it is known. The writer is flushed after every result, but not closed.
+     *
+     * @param report writer of the JSON report.
+     * @return number of providers that did not pass.
+     * @throws IOException when the report cannot be written.
+     */
+    public int run(final Writer report) throws IOException {
+        if (null == report)
+            throw new IllegalArgumentException("Report Writer cannot be null!");
+
+        final long start = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(forks, providers.size()));
+        final LiveProcesses processes = new LiveProcesses();
+        try {
+            final CompletionService<Result> completion = new ExecutorCompletionService<Result>(executor);
+            for (final String provider : providers) {
+                completion.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() throws InterruptedException {
+                        final long forkStart = System.nanoTime();
+                        try {
+                            return fork(provider, processes);
+                        } catch (final IOException exc) {
+                            return new Result(provider, ERROR, (System.nanoTime() - forkStart) / 1000000L,
+                                    json(format("Forked JVM could not be run: %s", exc)));
+                        } catch (final RuntimeException exc) {
+                            return new Result(provider, ERROR, (System.nanoTime() - forkStart) / 1000000L,
+                                    json(exc.toString()));
+                        }
+                    }
+                });
+            }
+
+            int passed = 0;
+            int failed = 0;
+            int errors = 0;
+            report.write(format("{%n  \"results\": ["));
+            for (int index = 0; index < providers.size(); index++) {
+                final Result result = take(completion);
+                if (PASSED.equals(result.status))
+                    passed++;
+                else if (FAILED.equals(result.status))
+                    failed++;
+                else
+                    errors++;
+                report.write(format("%s%n    %s", index == 0 ? "" : ",", result.toJson()));
+                report.flush();
+            }
+            report.write(format("%n  ],%n  \"passed\": %d,%n  \"failed\": %d,%n  \"errors\": %d,%n  \"elapsedMillis\": %d%n}%n",
+                    passed, failed, errors, (System.nanoTime() - start) / 1000000L));
+            report.flush();
+            return failed + errors;
+        } finally {
+            // the forks blocked reading the output cannot be interrupted, only
+            // their JVMs can be stopped when the run is aborted
+            executor.shutdownNow();
+            processes.destroyAll();
+        }
+    }
+
+    private static Result take(final CompletionService<Result> completion) {
+        try {
+            return completion.take().get();
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Forked verification was interrupted!", exc);
+        } catch (final ExecutionException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException("Forked verification failed!", cause);
+        }
+    }
+
+    private Result fork(final String provider,
+                        final LiveProcesses processes) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArguments);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(ForkedVerificationRunner.class.getName());
+        command.add(WORKER_OPTION);
+        command.add(provider);
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String result = null;
+        final LinkedList<String> tail = new LinkedList<String>();
+        try {
+            if (!processes.add(process))
+                throw new InterruptedException("Forked verification was aborted!");
+            process.getOutputStream().close();
+            final BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            try {
+                // the output is read to the end, so the JVM never blocks on a full pipe
+                for (String line = output.readLine(); null != line; line = output.readLine()) {
+                    if (line.startsWith(RESULT_MARKER + " "))
+                        result = line.substring(RESULT_MARKER.length() + 1);
+                    tail.add(line);
+                    if (tail.size() > OUTPUT_TAIL_LINES)
+                        tail.removeFirst();
+                }
+            } finally {
+                output.close();
+            }
+            final int exitCode = process.waitFor();
+            final long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+            if (null == result) {
+                final StringBuilder message = new StringBuilder(
+                        format("Forked JVM exited with code %d without a result!", exitCode)
+                );
+                for (final String line : tail) {
+                    message.append(format("%n%s", line));
+                }
+                return new Result(provider, ERROR, elapsedMillis, json(message.toString()));
+            }
+
+            final int separator = result.indexOf(' ');
+            final String status = separator < 0 ? result : result.substring(0, separator);
+            final String message = separator < 0 ? null : result.substring(separator + 1);
+            // other output of the fork may start with the marker or end up on its line
+            if (!(PASSED.equals(status) || FAILED.equals(status) || ERROR.equals(status))
+                    || (null != message && !isJson(message)))
+                return new Result(provider, ERROR, elapsedMillis,
+                        json(format("Forked JVM reported a malformed result %s!", result)));
+            return new Result(provider, status, elapsedMillis, message);
+        } finally {
+            processes.remove(process);
+            process.destroy();
+        }
+    }
+
+    /**
+     * Runs the verification from the command line, see the class
+     * documentation for the arguments.
+     *
+     * @param args command line arguments.
+     */
+    public static void main(final String[] args) {
+        if (args.length == 2 && WORKER_OPTION.equals(args[0])) {
+            System.out.println(RESULT_MARKER + " " + verifyInFork(args[1]));
+            System.out.flush();
+            // threads left behind by the verified types cannot keep the fork alive
+            System.exit(0);
+        }
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(final String[] args, final PrintStream out, final PrintStream err) {
+        final List<String> providers = new ArrayList<String>();
+        final List<String> jvmArguments = new ArrayList<String>();
+        Integer forks = null;
+        String classpath = null;
+        String reportFile = null;
+        try {
+            for (int index = 0; index < args.length; index++) {
+                final String arg = args[index];
+                if ("--forks".equals(arg))
+                    forks = parseForks(value(args, ++index, arg));
+                else if ("--jvm-arg".equals(arg))
+                    jvmArguments.add(value(args, ++index, arg));
+                else if ("--classpath".equals(arg))
+                    classpath = value(args, ++index, arg);
+                else if ("--report".equals(arg))
+                    reportFile = value(args, ++index, arg);
+                else if (arg.startsWith("--"))
+                    throw new IllegalArgumentException(format("Unknown option %s!", arg));
+                else
+                    providers.add(arg);
+            }
+
+            final ForkedVerificationRunner runner = forProviders(providers.toArray(new String[providers.size()]));
+            if (null != forks)
+                runner.forks(forks);
+            for (final String argument : jvmArguments) {
+                runner.jvmArgument(argument);
+            }
+            if (null != classpath)
+                runner.classpath(classpath);
+
+            if (null == reportFile) {
+                final Writer report = new OutputStreamWriter(out, "UTF-8");
+                return runner.run(report) == 0 ? 0 : 1;
+            }
+            final Writer report = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+            try {
+                return runner.run(report) == 0 ? 0 : 1;
+            } finally {
+                report.close();
+            }
+        } catch (final IllegalArgumentException exc) {
+            err.println(exc.getMessage());
+            err.println("Usage: " + ForkedVerificationRunner.class.getName()
+                    + " [--forks <n>] [--jvm-arg <argument>]... [--classpath <classpath>] [--report <file>] <provider>...");
+            return 2;
+        } catch (final IOException exc) {
+            err.println(format("Report could not be written: %s", exc));
+            return 1;
+        }
+    }
+
+    private static String value(final String[] args, final int index, final String option) {
+        if (index >= args.length)
+            throw new IllegalArgumentException(format("Option %s requires a value!", option));
+        return args[index];
+    }
+
+    private static int parseForks(final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException exc) {
+            throw new IllegalArgumentException(format("Number of forks %s is not a number!", value));
+        }
+    }
+
+    // status followed by the message as a JSON string, if there is any
+    static String verifyInFork(final String provider) {
+        try {
+            verifyProvider(provider);
+            return PASSED;
+        } catch (final AssertionError error) {
+            return FAILED + " " + json(error.getMessage());
+        } catch (final Throwable failure) {
+            return ERROR + " " + json(failure.toString());
+        }
+    }
+
+    static void verifyProvider(final String name) {
+        final Class<?> provider;
+        try {
+            provider = Class.forName(name);
+        } catch (final ClassNotFoundException exc) {
+            throw new IllegalStateException(format("Fixture provider %s not found!", name), exc);
+        }
+
+        final Method verifier = verifierMethod(provider);
+        if (null == verifier) {
+            ComparableDiscovery.verifyFactories(provider);
+            return;
+        }
+        try {
+            ((ComparableVerifier<?>) verifier.invoke(null)).verify();
+        } catch (final IllegalAccessException exc) {
+            throw new IllegalStateException(format("Method %s is not accessible!", verifier), exc);
+        } catch (final InvocationTargetException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(format("Method %s failed!", verifier), cause);
+        }
+    }
+
+    private static Method verifierMethod(final Class<?> provider) {
+        try {
+            final Method method = provider.getMethod("verifier");
+            if (Modifier.isStatic(method.getModifiers())
+                    && ComparableVerifier.class.isAssignableFrom(method.getReturnType()))
+                return method;
+        } catch (final NoSuchMethodException exc) {
+            // the provider declares annotated factories instead
+        }
+        return null;
+    }
+
+    // JSON string literal, with all non-ASCII characters escaped
+    static String json(final String value) {
+        if (null == value)
+            return "null";
+
+        final StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int index = 0; index < value.length(); index++) {
+            final char character = value.charAt(index);
+            if (character == '"' || character == '\\')
+                literal.append('\\').append(character);
+            else if (character == '\n')
+                literal.append("\\n");
+            else if (character == '\r')
+                literal.append("\\r");
+            else if (character == '\t')
+                literal.append("\\t");
+            else if (character < 0x20 || character > 0x7e)
+                literal.append(format("\\u%04x", (int) character));
+            else
+                literal.append(character);
+        }
+        return literal.append('"').toString();
+    }
+
+    // whether the value is a JSON string literal as written by json(String)
+    static boolean isJson(final String value) {
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"')
+            return false;
+
+        for (int index = 1; index < value.length() - 1; index++) {
+            final char character = value.charAt(index);
+            if (character == '"' || character < 0x20 || character > 0x7e)
+                return false;
+            if (character != '\\')
+                continue;
+            if (++index == value.length() - 1)
+                return false;
+            final char escaped = value.charAt(index);
+            if (escaped == 'u') {
+                if (index + 4 >= value.length() - 1)
+                    return false;
+                for (int digit = index + 1; digit <= index + 4; digit++) {
+                    if ("0123456789abcdefABCDEF".indexOf(value.charAt(digit)) < 0)
+                        return false;
+                }
+                index += 4;
+            } else if ("\"\\/bfnrt".indexOf(escaped) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // processes of the running forks, destroyed all at once when the run is aborted
+    private static final class LiveProcesses {
+        private final Set<Process> processes = new HashSet<Process>();
+        private boolean aborted;
+
+        // false when the run was already aborted, the process is not added then
+        synchronized boolean add(final Process process) {
+            if (aborted)
+                return false;
+            processes.add(process);
+            return true;
+        }
+
+        synchronized void remove(final Process process) {
+            processes.remove(process);
+        }
+
+        synchronized void destroyAll() {
+            aborted = true;
+            for (final Process process : processes) {
+                process.destroy();
+            }
+            processes.clear();
+        }
+    }
+
+    private static final class Result {
+        final String provider;
+        final String status;
+        final long elapsedMillis;
+        // JSON string literal
+        final String message;
+
+        Result(final String provider, final String status, final long elapsedMillis, final String message) {
+            this.provider = provider;
+            this.status = status;
+            this.elapsedMillis = elapsedMillis;
+            this.message = message;
+        }
+
+        String toJson() {
+            final StringBuilder json = new StringBuilder(format("{\"provider\": %s, \"status\": %s, \"elapsedMillis\": %d",
+                    json(provider), json(status), elapsedMillis));
+            if (null != message)
+                json.append(", \"message\": ").append(message);
+            return json.append('}').toString();
+        }
+    }
+}
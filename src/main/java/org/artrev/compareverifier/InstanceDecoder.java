@@ -0,0 +1,37 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Defines a function that turns a single binary corpus entry back into an
+ * instance used by verification in {@link ComparableVerifier}.
+ *
+ * @param <A> type of the decoded instances
+ * @see VerificationInstancesCreators#fromCorpus(java.io.File, InstanceDecoder)
+ */
+public interface InstanceDecoder<A> {
+    /**
+     * Decodes an instance from the given bytes. The buffer is positioned at
+     * the first byte of the entry and its limit is set to the end of the entry.
+     * Should not return null.
+     *
+     * @param bytes read-only view of a single corpus entry.
+     * @return decoded instance.
+     */
+    A decode(ByteBuffer bytes);
+}
@@ -0,0 +1,34 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Defines a function that turns an instance used by verification in
+ * {@link ComparableVerifier} into bytes, so it can be stored in a binary corpus
+ * and read back with a matching {@link InstanceDecoder}.
+ *
+ * @param <A> type of the encoded instances
+ * @see ComparableVerifier#replayCorpus(java.io.File, InstanceEncoder, InstanceDecoder)
+ */
+public interface InstanceEncoder<A> {
+    /**
+     * Encodes the given instance. Should not return null.
+     *
+     * @param instance instance that should be encoded.
+     * @return bytes representing the instance.
+     */
+    byte[] encode(A instance);
+}
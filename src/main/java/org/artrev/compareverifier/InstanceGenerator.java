@@ -0,0 +1,36 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.Random;
+
+/**
+ * Defines a generator of random instances used by
+ * {@link CoverageGuidedInstances}.
+ *
+ * @param <A> type of the generated instances
+ */
+public interface InstanceGenerator<A> {
+    /**
+     * Returns a new instance built from the values drawn from the given
+     * random generator. Two random generators with the same seed have to give
+     * equal, but not the same, instances.
+     *
+     * @param random source of the random values.
+     * @return generated instance.
+     */
+    A generate(Random random);
+}
@@ -0,0 +1,167 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the instances returned by {@link VerificationInstancesCreator}s.
+ * <p>
+ * Creators are looked up by reference and held through
+ * {@link WeakReference}s, so a creator, and everything it captures, e.g. the
+ * state of a test class, is not kept alive by the cache. The entries of
+ * collected creators are purged on the next access. Instances are held
+ * through {@link SoftReference}s, so the garbage collector can reclaim them
+ * under memory pressure. Additionally the least recently used entries are
+ * evicted as soon as the total number of cached instances exceeds the
+ * configured limit.
+ * <p>
+ * Every creator is invoked by at most one thread at a time, threads asking for
+ * the same instances wait for the first one to finish instead of invoking the
+ * creator on their own.
+ */
+final class InstancesCache {
+    static final int DEFAULT_MAX_INSTANCES = 1 << 20;
+
+    static final InstancesCache SHARED = new InstancesCache(DEFAULT_MAX_INSTANCES);
+
+    private final int maxInstances;
+    // access ordered, so the iteration starts with the least recently used entry
+    private final Map<CreatorKey, Entry> entries = new LinkedHashMap<CreatorKey, Entry>(16, 0.75f, true);
+    private final ReferenceQueue<VerificationInstancesCreator<?>> collected =
+            new ReferenceQueue<VerificationInstancesCreator<?>>();
+    private long cachedInstances = 0;
+
+    InstancesCache(final int maxInstances) {
+        this.maxInstances = maxInstances;
+    }
+
+    @SuppressWarnings("unchecked")
+    <A> List<A> get(final VerificationInstancesCreator<A> creator) {
+        final Entry entry = entryFor(creator);
+        synchronized (entry) {
+            final List<?> cached = entry.instances();
+            if (null != cached)
+                return (List<A>) cached;
+
+            final List<A> created = creator.create();
+            if (null == created)
+                // let the verifier report the broken creator
+                return null;
+
+            final List<A> instances = Collections.unmodifiableList(created);
+            store(creator, entry, instances);
+            return instances;
+        }
+    }
+
+    private synchronized Entry entryFor(final VerificationInstancesCreator<?> creator) {
+        purgeCollected();
+        Entry entry = entries.get(new CreatorKey(creator, null));
+        if (null == entry) {
+            entry = new Entry();
+            entries.put(new CreatorKey(creator, collected), entry);
+        }
+        return entry;
+    }
+
+    synchronized int size() {
+        purgeCollected();
+        return entries.size();
+    }
+
+    private void purgeCollected() {
+        for (Reference<?> key = collected.poll(); null != key; key = collected.poll()) {
+            final Entry entry = entries.remove(key);
+            if (null != entry)
+                cachedInstances -= entry.size;
+        }
+    }
+
+    private synchronized void store(final VerificationInstancesCreator<?> creator,
+                                    final Entry entry,
+                                    final List<?> instances) {
+        cachedInstances -= entry.size;
+        entry.reference = new SoftReference<List<?>>(instances);
+        entry.size = instances.size();
+        cachedInstances += entry.size;
+        // the entry might have been evicted while the creator was running
+        if (entry != entries.get(new CreatorKey(creator, null)))
+            entries.put(new CreatorKey(creator, collected), entry);
+
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry candidate = iterator.next();
+            if (candidate == entry)
+                // never evict what was just created
+                continue;
+
+            final boolean reclaimed = candidate.size > 0 && null == candidate.instances();
+            if (reclaimed || cachedInstances > maxInstances) {
+                cachedInstances -= candidate.size;
+                candidate.reference = null;
+                candidate.size = 0;
+                iterator.remove();
+            }
+        }
+    }
+
+    // equal to the keys of the very same creator, a key of a collected creator only to itself
+    private static final class CreatorKey extends WeakReference<VerificationInstancesCreator<?>> {
+        private final int hash;
+
+        CreatorKey(final VerificationInstancesCreator<?> creator,
+                   final ReferenceQueue<VerificationInstancesCreator<?>> queue) {
+            super(creator, queue);
+            this.hash = System.identityHashCode(creator);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other)
+                return true;
+            if (!(other instanceof CreatorKey))
+                return false;
+
+            final Object creator = get();
+            return null != creator && creator == ((CreatorKey) other).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        // written under the cache lock, read under the entry lock
+        volatile SoftReference<List<?>> reference;
+        volatile int size;
+
+        List<?> instances() {
+            final SoftReference<List<?>> current = reference;
+            return null == current ? null : current.get();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.BitSet;
+
+/**
+ * Reads the probes of a single class instrumented by the JaCoCo agent the JVM
+ * runs with, e.g. the one attached to the tests by the Gradle {@code jacoco}
+ * plugin. The instrumented class keeps its probes in a synthetic static
+ * field, which is accessed through reflection, so JaCoCo is not a dependency.
+ * <p>
+ * While the probes are collected, the field points to a private array, so
+ * the class under test records its coverage there and the execution data of
+ * the agent is never read nor reset. The collected probes are added to the
+ * array of the agent before they are cleared, and the field points to it
+ * again once the collection stops, so the coverage reports of the build stay
+ * complete. Only the probes
+ * of the class are copied, the cost does not grow with the instrumented code.
+ * <p>
+ * JaCoCo keeps the probes in the field for classes compiled for Java 10 and
+ * older, the probes of newer classes cannot be redirected.
+ */
+final class JacocoCoverage implements CoverageProbe {
+    // synthetic members added to every instrumented class
+    private static final String PROBES_FIELD = "$jacocoData";
+    private static final String PROBES_INIT = "$jacocoInit";
+
+    private final Field field;
+    private final Method init;
+    // probes of the agent, while the private ones are collected
+    private boolean[] agentProbes;
+    private boolean[] probes;
+
+    private JacocoCoverage(final Field field, final Method init) {
+        this.field = field;
+        this.init = init;
+    }
+
+    // null when the class is not instrumented by the JaCoCo agent
+    static JacocoCoverage forClass(final Class<?> type) {
+        try {
+            final Field field = type.getDeclaredField(PROBES_FIELD);
+            final Method init = type.getDeclaredMethod(PROBES_INIT);
+            if (field.getType() != boolean[].class || init.getReturnType() != boolean[].class)
+                return null;
+            field.setAccessible(true);
+            init.setAccessible(true);
+            return new JacocoCoverage(field, init);
+        } catch (final NoSuchFieldException exc) {
+            return null;
+        } catch (final NoSuchMethodException exc) {
+            return null;
+        } catch (final SecurityException exc) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (null != agentProbes)
+            throw new IllegalStateException("JaCoCo probes are already collected!");
+
+        // the initialization looks the probes up in the agent the first time
+        final boolean[] agent = (boolean[]) invoke();
+        probes = new boolean[agent.length];
+        agentProbes = agent;
+        set(probes);
+    }
+
+    @Override
+    public synchronized void reset() {
+        // the agent keeps the coverage cleared from the private probes
+        addToAgent();
+        for (int probe = 0; probe < probes.length; probe++) {
+            probes[probe] = false;
+        }
+    }
+
+    @Override
+    public synchronized BitSet covered() {
+        final BitSet covered = new BitSet(probes.length);
+        for (int probe = 0; probe < probes.length; probe++) {
+            if (probes[probe])
+                covered.set(probe);
+        }
+        return covered;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (null == agentProbes)
+            return;
+
+        set(agentProbes);
+        addToAgent();
+        agentProbes = null;
+    }
+
+    private void addToAgent() {
+        for (int probe = 0; probe < probes.length; probe++) {
+            if (probes[probe])
+                agentProbes[probe] = true;
+        }
+    }
+
+    private Object invoke() {
+        try {
+            return init.invoke(null);
+        } catch (final IllegalAccessException exc) {
+            throw new IllegalStateException("JaCoCo probes are not accessible!", exc);
+        } catch (final InvocationTargetException exc) {
+            throw new IllegalStateException("JaCoCo probes could not be initialized!", exc.getCause());
+        }
+    }
+
+    private void set(final boolean[] value) {
+        try {
+            field.set(null, value);
+        } catch (final IllegalAccessException exc) {
+            throw new IllegalStateException("JaCoCo probes are not accessible!", exc);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Defines a function extracting a sort key from an instance. A chain of such
+ * functions describes a {@code compareTo} that compares the instances by the
+ * first key, then by the second key and so on.
+ *
+ * @param <A> type of the instances
+ * @param <K> type of the extracted keys
+ * @see ComparableVerifier#keySegment(KeyExtractor)
+ */
+public interface KeyExtractor<A, K extends Comparable<? super K>> {
+    /**
+     * Extracts the key from the given instance. Should not return null.
+     *
+     * @param instance instance the key is extracted from.
+     * @return extracted key.
+     */
+    K extract(A instance);
+}
@@ -0,0 +1,88 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Keys of every instance extracted once for every segment of a key chain,
+ * so comparing the instances by the keys does not extract them again.
+ */
+final class KeyTable<A> {
+    private final List<A> instances;
+    // keys[segment][instance]
+    private final Comparable<?>[][] keys;
+
+    private KeyTable(final List<A> instances, final Comparable<?>[][] keys) {
+        this.instances = instances;
+        this.keys = keys;
+    }
+
+    static <A> KeyTable<A> extract(final List<KeyExtractor<? super A, ?>> segments,
+                                   final List<A> instances) {
+        final Comparable<?>[][] keys = new Comparable<?>[segments.size()][instances.size()];
+        for (int segment = 0; segment < segments.size(); segment++) {
+            final KeyExtractor<? super A, ?> extractor = segments.get(segment);
+            for (int index = 0; index < instances.size(); index++) {
+                final A instance = instances.get(index);
+                final Comparable<?> key = extractor.extract(instance);
+                if (null == key)
+                    throw new ContractViolation(
+                            format("Key chain segment %d returned a null key for %s!", segment + 1, instance),
+                            instance
+                    );
+                keys[segment][index] = key;
+            }
+        }
+        return new KeyTable<A>(instances, keys);
+    }
+
+    int segments() {
+        return keys.length;
+    }
+
+    int size() {
+        return instances.size();
+    }
+
+    A instance(final int index) {
+        return instances.get(index);
+    }
+
+    Comparable<?> key(final int segment, final int index) {
+        return keys[segment][index];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    int sign(final int segment, final int first, final int second) {
+        final Comparable firstKey = keys[segment][first];
+        return (int) Math.signum(firstKey.compareTo(keys[segment][second]));
+    }
+
+    /**
+     * Returns the number of the segment that decides the order of the given
+     * instances, or -1 if all the segments consider them equal.
+     */
+    int decidingSegment(final int first, final int second) {
+        for (int segment = 0; segment < keys.length; segment++) {
+            if (sign(segment, first, second) != 0)
+                return segment;
+        }
+        return -1;
+    }
+}
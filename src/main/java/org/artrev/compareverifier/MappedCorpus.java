@@ -0,0 +1,165 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.String.format;
+
+/**
+ * Read-only view of a length-prefixed binary corpus file. Every entry is
+ * stored as a big-endian 4 byte length followed by that many bytes, the same
+ * layout {@link java.io.DataOutputStream#writeInt(int)} followed by
+ * {@link java.io.DataOutputStream#write(byte[])} produces.
+ * <p>
+ * The file is memory-mapped and only the entry offsets are read eagerly.
+ */
+final class MappedCorpus {
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private MappedCorpus(final File file,
+                         final ByteBuffer buffer,
+                         final int[] offsets,
+                         final int[] lengths) {
+        this.file = file;
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    static MappedCorpus map(final File file) {
+        final MappedByteBuffer buffer;
+        try {
+            final RandomAccessFile input = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel channel = input.getChannel();
+                if (channel.size() > Integer.MAX_VALUE)
+                    throw new IllegalStateException(
+                            format("Corpus file %s is larger than %d bytes!", file, Integer.MAX_VALUE)
+                    );
+                // the mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                input.close();
+            }
+        } catch (final IOException exc) {
+            throw new IllegalStateException(format("Unable to read corpus file %s!", file), exc);
+        }
+        return index(file, buffer);
+    }
+
+    private static MappedCorpus index(final File file, final ByteBuffer buffer) {
+        int[] offsets = new int[16];
+        int[] lengths = new int[16];
+        int count = 0;
+        int position = 0;
+        final int limit = buffer.limit();
+        while (position < limit) {
+            if (limit - position < 4)
+                throw new IllegalStateException(
+                        format("Corpus file %s is truncated at offset %d!", file, position)
+                );
+            final int length = buffer.getInt(position);
+            position += 4;
+            if (length < 0 || length > limit - position)
+                throw new IllegalStateException(
+                        format("Corpus file %s has an invalid entry length %d at offset %d!", file, length, position - 4)
+                );
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = position;
+            lengths[count] = length;
+            count++;
+            position += length;
+        }
+        return new MappedCorpus(
+                file,
+                buffer,
+                Arrays.copyOf(offsets, count),
+                Arrays.copyOf(lengths, count)
+        );
+    }
+
+    int size() {
+        return offsets.length;
+    }
+
+    ByteBuffer entry(final int index) {
+        final ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.limit(offsets[index] + lengths[index]);
+        view.position(offsets[index]);
+        return view.slice();
+    }
+
+    File file() {
+        return file;
+    }
+
+    /**
+     * Returns a List that decodes the corpus entries on first access. Decoded
+     * instances are kept, so every entry is decoded at most once per List.
+     */
+    <A> List<A> decodeLazily(final InstanceDecoder<A> decoder) {
+        return new LazilyDecodedList<A>(this, decoder);
+    }
+
+    private static final class LazilyDecodedList<A> extends AbstractList<A> implements RandomAccess {
+        private final MappedCorpus corpus;
+        private final InstanceDecoder<A> decoder;
+        private final AtomicReferenceArray<A> decoded;
+
+        LazilyDecodedList(final MappedCorpus corpus, final InstanceDecoder<A> decoder) {
+            this.corpus = corpus;
+            this.decoder = decoder;
+            this.decoded = new AtomicReferenceArray<A>(corpus.size());
+        }
+
+        @Override
+        public A get(final int index) {
+            final A cached = decoded.get(index);
+            if (null != cached)
+                return cached;
+
+            final A instance = decoder.decode(corpus.entry(index));
+            if (null == instance)
+                throw new IllegalStateException(
+                        format("InstanceDecoder returned null for entry %d of corpus file %s!", index, corpus.file())
+                );
+            // another thread might have won the race, use its instance
+            return decoded.compareAndSet(index, null, instance) ? instance : decoded.get(index);
+        }
+
+        @Override
+        public int size() {
+            return decoded.length();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a task for every row of a pair space on all available processors.
+ * Rows are handed out one by one, so uneven rows do not leave threads idle.
+ */
+final class ParallelRows {
+    private ParallelRows() {
+        throw new IllegalStateException("ParallelRows should not be instantiated!");
+    }
+
+    interface RowTask {
+        void run(int row);
+    }
+
+    static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static void run(final int rows, final RowTask task) {
+        run(rows, defaultThreads(), task);
+    }
+
+    static void run(final int rows, final int threads, final RowTask task) {
+        final int workers = Math.max(1, Math.min(threads, rows));
+        if (workers == 1) {
+            for (int row = 0; row < rows; row++) {
+                task.run(row);
+            }
+            return;
+        }
+
+        final AtomicInteger nextRow = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>(workers);
+            for (int worker = 0; worker < workers; worker++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        boolean completed = false;
+                        try {
+                            for (int row = nextRow.getAndIncrement(); row < rows; row = nextRow.getAndIncrement()) {
+                                task.run(row);
+                            }
+                            completed = true;
+                        } finally {
+                            if (!completed)
+                                // stop handing out rows to the other workers
+                                nextRow.set(rows);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(final Future<Void> future) {
+        try {
+            future.get();
+        } catch (final InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel verification was interrupted!", exc);
+        } catch (final ExecutionException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
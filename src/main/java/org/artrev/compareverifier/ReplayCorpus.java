@@ -0,0 +1,199 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Corpus of counterexamples found by previous verifications.
+ * <p>
+ * It is stored in the same length-prefixed layout as the files read by
+ * {@link MappedCorpus}. Every entry holds a single instance preceded by the
+ * number of the counterexample it belongs to (4 bytes) and its group (1 byte).
+ */
+final class ReplayCorpus<A> {
+    private static final byte LESSER = 0;
+    private static final byte EQUAL = 1;
+    private static final byte GREATER = 2;
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final File file;
+    private final InstanceEncoder<A> encoder;
+    private final InstanceDecoder<A> decoder;
+
+    ReplayCorpus(final File file,
+                 final InstanceEncoder<A> encoder,
+                 final InstanceDecoder<A> decoder) {
+        this.file = file;
+        this.encoder = encoder;
+        this.decoder = decoder;
+    }
+
+    File file() {
+        return file;
+    }
+
+    synchronized List<Counterexample<A>> load() {
+        if (!file.exists())
+            return Collections.emptyList();
+
+        final MappedCorpus corpus = MappedCorpus.map(file);
+        final Map<Integer, Counterexample<A>> counterexamples =
+                new LinkedHashMap<Integer, Counterexample<A>>();
+        for (int index = 0; index < corpus.size(); index++) {
+            final ByteBuffer entry = corpus.entry(index);
+            if (entry.remaining() < HEADER_LENGTH)
+                throw new IllegalStateException(
+                        format("Replay corpus %s has a malformed entry %d!", file, index)
+                );
+            final int number = entry.getInt();
+            final byte group = entry.get();
+
+            final A instance = decoder.decode(entry.slice());
+            if (null == instance)
+                throw new IllegalStateException(
+                        format("InstanceDecoder returned null for entry %d of replay corpus %s!", index, file)
+                );
+
+            Counterexample<A> counterexample = counterexamples.get(number);
+            if (null == counterexample) {
+                counterexample = new Counterexample<A>();
+                counterexamples.put(number, counterexample);
+            }
+            counterexample.group(group).add(instance);
+        }
+        return new ArrayList<Counterexample<A>>(counterexamples.values());
+    }
+
+    /**
+     * Builds a counterexample out of the instances that caused the violation.
+     * First instance of every group is always added as a context, so all the
+     * checks have something to work with when the counterexample is replayed.
+     */
+    static <A> Counterexample<A> capture(final ContractViolation violation,
+                                         final List<A> lesser,
+                                         final List<A> equal,
+                                         final List<A> greater) {
+        final Counterexample<A> counterexample = new Counterexample<A>();
+        counterexample.lesser.add(lesser.get(0));
+        counterexample.equal.add(equal.get(0));
+        counterexample.greater.add(greater.get(0));
+
+        for (final Object instance : violation.instances()) {
+            if (addIfPresent(instance, lesser, counterexample.lesser))
+                continue;
+            if (addIfPresent(instance, equal, counterexample.equal))
+                continue;
+            addIfPresent(instance, greater, counterexample.greater);
+        }
+        return counterexample;
+    }
+
+    // checks can fail concurrently, the whole counterexample is appended with a single write
+    synchronized void record(final Counterexample<A> counterexample) throws IOException {
+        final int number = nextNumber();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream encoded = new DataOutputStream(bytes);
+        encode(encoded, number, LESSER, counterexample.lesser);
+        encode(encoded, number, EQUAL, counterexample.equal);
+        encode(encoded, number, GREATER, counterexample.greater);
+        encoded.flush();
+
+        final FileOutputStream output = new FileOutputStream(file, true);
+        try {
+            output.write(bytes.toByteArray());
+        } finally {
+            output.close();
+        }
+    }
+
+    private void encode(final DataOutputStream output,
+                        final int number,
+                        final byte group,
+                        final List<A> instances) throws IOException {
+        for (final A instance : instances) {
+            final byte[] bytes = encoder.encode(instance);
+            if (null == bytes)
+                throw new IllegalStateException(
+                        format("InstanceEncoder returned null for %s!", instance)
+                );
+            output.writeInt(HEADER_LENGTH + bytes.length);
+            output.writeInt(number);
+            output.writeByte(group);
+            output.write(bytes);
+        }
+    }
+
+    private int nextNumber() {
+        if (!file.exists())
+            return 0;
+
+        final MappedCorpus corpus = MappedCorpus.map(file);
+        int next = 0;
+        for (int index = 0; index < corpus.size(); index++) {
+            next = Math.max(next, corpus.entry(index).getInt() + 1);
+        }
+        return next;
+    }
+
+    private static <A> boolean addIfPresent(final Object instance,
+                                            final List<A> group,
+                                            final List<A> target) {
+        for (final A candidate : group) {
+            if (candidate == instance) {
+                for (final A present : target) {
+                    if (present == instance)
+                        return true;
+                }
+                target.add(candidate);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Counterexample<A> {
+        final List<A> lesser = new ArrayList<A>();
+        final List<A> equal = new ArrayList<A>();
+        final List<A> greater = new ArrayList<A>();
+
+        private List<A> group(final byte group) {
+            switch (group) {
+                case LESSER:
+                    return lesser;
+                case EQUAL:
+                    return equal;
+                case GREATER:
+                    return greater;
+                default:
+                    throw new IllegalStateException(format("Unknown replay corpus group %d!", group));
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.List;
+
+/**
+ * Defines how to make an instance smaller, used by {@link ComparableVerifier}
+ * to shrink the instances of a counterexample, e.g. a shorter string or a
+ * number closer to zero.
+ *
+ * @param <A> type of the shrunk instances
+ * @see ComparableVerifier#shrinkWith(Shrinker)
+ */
+public interface Shrinker<A> {
+    /**
+     * Returns instances that are strictly smaller than the given one, the
+     * most promising first, e.g. the smallest. Should not return a null List
+     * or a List that contains null values.
+     *
+     * @param instance instance that should be shrunk.
+     * @return smaller instances or an empty List when the instance cannot be
+     * shrunk any further.
+     */
+    List<A> shrink(A instance);
+}
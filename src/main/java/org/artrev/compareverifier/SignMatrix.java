@@ -0,0 +1,86 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Compact matrix of the signs of {@code compareTo} calls, a single byte per
+ * ordered pair of instances. A call that failed with an exception is stored
+ * as {@link #THREW}. The pairs of {@link #MAX_SIZE} instances already take
+ * 16 MB, so larger matrices are refused rather than risking running out of
+ * memory.
+ */
+final class SignMatrix {
+    static final int THREW = 2;
+    static final int MAX_SIZE = 4096;
+
+    private final int size;
+    private final byte[] signs;
+
+    private SignMatrix(final int size) {
+        this.size = size;
+        this.signs = new byte[size * size];
+    }
+
+    // the check keeping the signs names the failure, as the matrix is not part of the API
+    static <A extends Comparable<A>> SignMatrix compute(final List<A> instances, final String check) {
+        if (instances.size() > MAX_SIZE)
+            throw new IllegalArgumentException(
+                    format("%s keeps the signs of all the pairs of instances and supports at most %d instances, got %d!",
+                            check, MAX_SIZE, instances.size())
+            );
+
+        final SignMatrix matrix = new SignMatrix(instances.size());
+        for (int row = 0; row < instances.size(); row++) {
+            matrix.computeRow(instances, row);
+        }
+        return matrix;
+    }
+
+    static <A extends Comparable<A>> int sign(final A a, final A b) {
+        try {
+            return (int) Math.signum(a.compareTo(b));
+        } catch (final Exception exc) {
+            return THREW;
+        }
+    }
+
+    static String describe(final int sign) {
+        return sign == THREW ? "an exception" : String.valueOf(sign);
+    }
+
+    <A extends Comparable<A>> void computeRow(final List<A> instances, final int row) {
+        final A a = instances.get(row);
+        for (int column = 0; column < size; column++) {
+            signs[row * size + column] = (byte) sign(a, instances.get(column));
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(final int row, final int column) {
+        return signs[row * size + column];
+    }
+
+    void set(final int row, final int column, final int sign) {
+        signs[row * size + column] = (byte) sign;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.List;
+
+/**
+ * Defines a factory for instances of a given size used by
+ * {@link ComplexityVerifier}. What the size means is up to the class under
+ * test, e.g. the number of elements of a list compared by {@code compareTo}.
+ *
+ * @param <A> type of the returned instances
+ */
+public interface SizedInstancesCreator<A> {
+    /**
+     * Returns a List of instances of the given size. Should not return a null
+     * List or a List that contains null values.
+     *
+     * @param size size of the created instances.
+     * @return list of instances.
+     */
+    List<A> create(int size);
+}
@@ -0,0 +1,373 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+
+/**
+ * {@code SortThroughputHarness} is a tool that can be used in unit tests to
+ * guard the performance of a {@link Comparable} implementation that already
+ * passes the {@link ComparableVerifier} checks.
+ * <p>
+ * It reuses the instances returned by the same {@link VerificationInstancesCreator}s,
+ * scales them up to the configured sizes and measures the throughput, in
+ * elements per second, of:
+ * <ul>
+ * <li><b>arraysSort</b> - sorting a shuffled array with {@link Arrays#sort(Object[])}</li>
+ * <li><b>treeMapPut</b> - putting shuffled instances into a {@link TreeMap}</li>
+ * <li><b>binarySearch</b> - looking up shuffled instances in a sorted List with
+ * {@link Collections#binarySearch(List, Object)}</li>
+ * </ul>
+ * Every measurement is preceded by warmup iterations, so the JIT compiler can
+ * settle, and the median of the measured iterations is used.
+ * <p>
+ * The created instances are repeated to fill the sizes, so a size far beyond
+ * them measures mostly duplicates, which sort and search faster than distinct
+ * instances. Give an {@link InstanceGenerator} to fill the sizes with
+ * generated instances instead.
+ * <p>
+ * When a baseline file is given, the results are compared with it and an
+ * {@link AssertionError} is thrown if any throughput dropped by more than the
+ * regression threshold. A missing baseline file is created from the current
+ * results, delete it to record a new baseline.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * SortThroughputHarness
+ *     .forInstances(lesserCreator, equalCreator, greaterCreator)
+ *     .sizes(1000, 100000)
+ *     .generator(moneyGenerator)
+ *     .baseline(new File("src/test/resources/sort-baseline.properties"))
+ *     .regressionThreshold(0.2)
+ *     .run();
+ * }
+ * </pre>
+ *
+ * @param <A> type of the class under test
+ * @see ComparableVerifier
+ */
+public final class SortThroughputHarness<A extends Comparable<A>> {
+    private static final long SHUFFLE_SEED = 42L;
+
+    private final VerificationInstancesCreator<A> lesserCreator;
+    private final VerificationInstancesCreator<A> equalCreator;
+    private final VerificationInstancesCreator<A> greaterCreator;
+
+    private int[] sizes = {1000, 10000, 100000};
+    private int warmupIterations = 10;
+    private int measurementIterations = 10;
+    private File baseline = null;
+    private double regressionThreshold = 0.1;
+    private InstanceGenerator<A> generator = null;
+
+    private SortThroughputHarness(final VerificationInstancesCreator<A> lesserCreator,
+                                  final VerificationInstancesCreator<A> equalCreator,
+                                  final VerificationInstancesCreator<A> greaterCreator) {
+        this.lesserCreator = lesserCreator;
+        this.equalCreator = equalCreator;
+        this.greaterCreator = greaterCreator;
+    }
+
+    /**
+     * Creates an instance of the {@link SortThroughputHarness}.
+     *
+     * @param lesserCreator  "lesser" instances factory
+     * @param equalCreator   "equal" instances factory
+     * @param greaterCreator "greater" instances factory
+     * @param <A>            type of the class under test
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public static <A extends Comparable<A>> SortThroughputHarness<A> forInstances(
+            final VerificationInstancesCreator<A> lesserCreator,
+            final VerificationInstancesCreator<A> equalCreator,
+            final VerificationInstancesCreator<A> greaterCreator) {
+
+        return new SortThroughputHarness<A>(
+                lesserCreator, equalCreator, greaterCreator
+        );
+    }
+
+    /**
+     * Sets the numbers of elements the instances are scaled up to. Each size
+     * is measured separately. Defaults to 1000, 10000 and 100000.
+     *
+     * @param sizes positive numbers of elements.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> sizes(final int... sizes) {
+        if (null == sizes || sizes.length == 0)
+            throw new IllegalArgumentException("At least one size is required!");
+        for (final int size : sizes) {
+            if (size <= 0)
+                throw new IllegalArgumentException("Sizes have to be positive!");
+        }
+
+        this.sizes = sizes.clone();
+        return this;
+    }
+
+    /**
+     * Sets the number of iterations run before the measurement. Defaults to 10.
+     *
+     * @param iterations non-negative number of iterations.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> warmupIterations(final int iterations) {
+        if (iterations < 0)
+            throw new IllegalArgumentException("Warmup iterations cannot be negative!");
+
+        warmupIterations = iterations;
+        return this;
+    }
+
+    /**
+     * Sets the number of measured iterations. Defaults to 10.
+     *
+     * @param iterations positive number of iterations.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> measurementIterations(final int iterations) {
+        if (iterations <= 0)
+            throw new IllegalArgumentException("Measurement iterations have to be positive!");
+
+        measurementIterations = iterations;
+        return this;
+    }
+
+    /**
+     * Sets the baseline file the results are compared with. The file uses the
+     * {@link Properties} format with a {@code benchmark.size} key and the
+     * throughput in elements per second as the value.
+     *
+     * @param file baseline file, it is created if it does not exist.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> baseline(final File file) {
+        if (null == file)
+            throw new IllegalArgumentException("Baseline file cannot be null!");
+
+        baseline = file;
+        return this;
+    }
+
+    /**
+     * Sets the tolerated drop of throughput compared to the baseline, e.g.
+     * 0.1 fails when any throughput is more than 10% lower. Defaults to 0.1.
+     *
+     * @param threshold fraction between 0 and 1.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> regressionThreshold(final double threshold) {
+        if (threshold < 0.0 || threshold >= 1.0)
+            throw new IllegalArgumentException("Regression threshold has to be between 0 and 1!");
+
+        regressionThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the generator of the instances filling the sizes beyond the created
+     * instances, which are otherwise repeated. The generator is seeded the
+     * same way in every run, so the measured instances do not change between
+     * the runs compared with a baseline.
+     *
+     * @param generator generator of the additional instances.
+     * @return instance of {@link SortThroughputHarness}
+     */
+    public SortThroughputHarness<A> generator(final InstanceGenerator<A> generator) {
+        if (null == generator)
+            throw new IllegalArgumentException("InstanceGenerator cannot be null!");
+
+        this.generator = generator;
+        return this;
+    }
+
+    /**
+     * Measures the throughput and compares it with the baseline, if any.
+     *
+     * @return measured throughput in elements per second, keyed by
+     * {@code benchmark.size}.
+     */
+    public Map<String, Double> run() {
+        final List<A> instances = new ArrayList<A>();
+        instances.addAll(ComparableVerifier.verifyInstancesCreator(lesserCreator, "lesser"));
+        instances.addAll(ComparableVerifier.verifyInstancesCreator(equalCreator, "equal"));
+        instances.addAll(ComparableVerifier.verifyInstancesCreator(greaterCreator, "greater"));
+
+        final Blackhole blackhole = new Blackhole();
+        final Map<String, Double> results = new LinkedHashMap<String, Double>();
+        for (final int size : sizes) {
+            final Object[] shuffled = scale(instances, size);
+            final Object[] sorted = shuffled.clone();
+            Arrays.sort(sorted);
+            final List<Object> sortedList = Arrays.asList(sorted);
+
+            results.put("arraysSort." + size, measure(new Benchmark() {
+                @Override
+                public void run() {
+                    final Object[] copy = shuffled.clone();
+                    Arrays.sort(copy);
+                    blackhole.consume(copy.length);
+                }
+            }, size));
+            results.put("treeMapPut." + size, measure(new Benchmark() {
+                @Override
+                public void run() {
+                    final TreeMap<Object, Object> map = new TreeMap<Object, Object>();
+                    for (final Object instance : shuffled) {
+                        map.put(instance, instance);
+                    }
+                    blackhole.consume(map.size());
+                }
+            }, size));
+            results.put("binarySearch." + size, measure(new Benchmark() {
+                @SuppressWarnings({"unchecked", "rawtypes"})
+                @Override
+                public void run() {
+                    final List list = sortedList;
+                    for (final Object instance : shuffled) {
+                        blackhole.consume(Collections.binarySearch(list, instance));
+                    }
+                }
+            }, size));
+        }
+        blackhole.publish();
+
+        if (null != baseline)
+            compareWithBaseline(results, workload(instances.size()));
+        return results;
+    }
+
+    private interface Benchmark {
+        void run();
+    }
+
+    private double measure(final Benchmark benchmark, final int elements) {
+        for (int iteration = 0; iteration < warmupIterations; iteration++) {
+            benchmark.run();
+        }
+
+        final double[] throughput = new double[measurementIterations];
+        for (int iteration = 0; iteration < measurementIterations; iteration++) {
+            final long start = System.nanoTime();
+            benchmark.run();
+            final long elapsed = Math.max(1L, System.nanoTime() - start);
+            throughput[iteration] = elements * 1e9 / elapsed;
+        }
+        Arrays.sort(throughput);
+        return throughput[throughput.length / 2];
+    }
+
+    private Object[] scale(final List<A> instances, final int size) {
+        final Object[] scaled = new Object[size];
+        final Random random = new Random(SHUFFLE_SEED);
+        for (int index = 0; index < size; index++) {
+            if (index < instances.size() || null == generator) {
+                scaled[index] = instances.get(index % instances.size());
+                continue;
+            }
+
+            final A generated = generator.generate(random);
+            if (null == generated)
+                throw new IllegalArgumentException("InstanceGenerator cannot generate null instances!");
+            scaled[index] = generated;
+        }
+        Collections.shuffle(Arrays.asList(scaled), new Random(SHUFFLE_SEED));
+        return scaled;
+    }
+
+    // the measured instances, as the throughput of repeated ones is not comparable to distinct ones
+    private String workload(final int created) {
+        return null != generator
+                ? format("%d created instances and generated ones", created)
+                : format("%d created instances repeated", created);
+    }
+
+    private void compareWithBaseline(final Map<String, Double> results, final String workload) {
+        if (!baseline.exists()) {
+            storeBaseline(results, workload);
+            return;
+        }
+
+        final Properties expected = loadBaseline();
+        final StringBuilder regressions = new StringBuilder();
+        for (final Map.Entry<String, Double> result : results.entrySet()) {
+            final String value = expected.getProperty(result.getKey());
+            if (null == value)
+                continue;
+
+            final double reference = Double.parseDouble(value);
+            if (result.getValue() < reference * (1.0 - regressionThreshold))
+                regressions.append(format("%n  %s: %.0f elements/s, baseline %.0f elements/s (%.1f%% slower)",
+                        result.getKey(), result.getValue(), reference,
+                        100.0 * (reference - result.getValue()) / reference));
+        }
+        if (regressions.length() > 0)
+            throw new AssertionError(
+                    format("Throughput regressed by more than %.1f%% compared to %s, measured on %s!%s",
+                            100.0 * regressionThreshold, baseline, workload, regressions)
+            );
+    }
+
+    private Properties loadBaseline() {
+        final Properties properties = new Properties();
+        try {
+            final InputStream input = new FileInputStream(baseline);
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
+        } catch (final IOException exc) {
+            throw new IllegalStateException(format("Unable to read baseline file %s!", baseline), exc);
+        }
+        return properties;
+    }
+
+    private void storeBaseline(final Map<String, Double> results, final String workload) {
+        final Properties properties = new Properties();
+        for (final Map.Entry<String, Double> result : results.entrySet()) {
+            properties.setProperty(result.getKey(), String.valueOf(result.getValue()));
+        }
+        try {
+            final OutputStream output = new FileOutputStream(baseline);
+            try {
+                properties.store(output, "SortThroughputHarness baseline, elements per second, measured on " + workload);
+            } finally {
+                output.close();
+            }
+        } catch (final IOException exc) {
+            throw new IllegalStateException(format("Unable to write baseline file %s!", baseline), exc);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * Picks the {@link VerificationStrategy} fitting a time budget, from the
+ * sizes of the instance groups and the measured cost of a single
+ * {@code compareTo} call.
+ */
+final class StrategySelector {
+    private static final int CALIBRATION_CALLS = 2000;
+    private static final long SEED = 42L;
+    // share of the ideal speedup the parallel strategy is expected to reach
+    private static final double PARALLEL_EFFICIENCY = 0.75;
+    // smaller samples miss too much, sorting all instances is preferred then
+    private static final double MIN_SAMPLED_FRACTION = 0.1;
+
+    private StrategySelector() {
+        throw new IllegalStateException("StrategySelector should not be instantiated!");
+    }
+
+    static final class Choice {
+        final VerificationStrategy strategy;
+        final String reason;
+        final double sampledFraction;
+
+        Choice(final VerificationStrategy strategy, final String reason, final double sampledFraction) {
+            this.strategy = strategy;
+            this.reason = reason;
+            this.sampledFraction = sampledFraction;
+        }
+    }
+
+    // average cost of a compareTo call in nanoseconds, measured after a warmup
+    static <A extends Comparable<A>> double calibrate(final List<A> instances) {
+        final Blackhole blackhole = new Blackhole();
+        final Random random = new Random(SEED);
+        compareRandomPairs(instances, random, blackhole);
+        final long start = System.nanoTime();
+        compareRandomPairs(instances, random, blackhole);
+        final long elapsed = System.nanoTime() - start;
+        blackhole.publish();
+        return Math.max(1.0, (double) elapsed / CALIBRATION_CALLS);
+    }
+
+    private static <A extends Comparable<A>> void compareRandomPairs(final List<A> instances,
+                                                                     final Random random,
+                                                                     final Blackhole blackhole) {
+        for (int call = 0; call < CALIBRATION_CALLS; call++) {
+            final A a = instances.get(random.nextInt(instances.size()));
+            final A b = instances.get(random.nextInt(instances.size()));
+            blackhole.consume(SignMatrix.sign(a, b));
+        }
+    }
+
+    // comparisons made by the reverse and transitivity checks
+    static double exhaustiveCalls(final double lesser, final double equal, final double greater) {
+        return 2 * (equal * equal + equal * lesser + equal * greater + lesser * greater)
+                + 3 * lesser * equal * greater;
+    }
+
+    // comparisons made by sorting and checking the neighbours
+    static double sortCalls(final int instances) {
+        return instances * Math.ceil(Math.log(Math.max(2, instances)) / Math.log(2)) + 2.0 * instances;
+    }
+
+    static Choice choose(final long budgetNanos,
+                         final int threads,
+                         final double nanosPerCall,
+                         final int lesser,
+                         final int equal,
+                         final int greater) {
+        final double calls = exhaustiveCalls(lesser, equal, greater);
+        final double exhaustive = calls * nanosPerCall;
+        final String estimate = format("%.0f comparisons of %.0f ns each take %s",
+                calls, nanosPerCall, describe(exhaustive));
+        if (exhaustive <= budgetNanos)
+            return new Choice(VerificationStrategy.EXHAUSTIVE,
+                    format("%s, within the budget of %s", estimate, describe(budgetNanos)), 1.0);
+
+        final double parallel = exhaustive / (threads * PARALLEL_EFFICIENCY);
+        if (threads > 1 && parallel <= budgetNanos)
+            return new Choice(VerificationStrategy.PARALLEL,
+                    format("%s on a single thread but about %s on %d threads, within the budget of %s",
+                            estimate, describe(parallel), threads, describe(budgetNanos)), 1.0);
+
+        final double fraction = largestSampledFraction(budgetNanos, nanosPerCall, lesser, equal, greater);
+        if (fraction >= MIN_SAMPLED_FRACTION)
+            return new Choice(VerificationStrategy.SAMPLED,
+                    format("%s, over the budget of %s, a sample of %.1f%% of the instances fits it",
+                            estimate, describe(budgetNanos), fraction * 100), fraction);
+
+        final int instances = lesser + equal + greater;
+        return new Choice(VerificationStrategy.SORT_BASED,
+                format("%s, over the budget of %s, even a sample of %.0f%% of the instances does not fit it, "
+                                + "sorting all %d instances takes about %s, but checks only the neighbours "
+                                + "in the sorted order, which is not exhaustive",
+                        estimate, describe(budgetNanos), MIN_SAMPLED_FRACTION * 100, instances,
+                        describe(sortCalls(instances) * nanosPerCall)), 1.0);
+    }
+
+    private static double largestSampledFraction(final long budgetNanos,
+                                                 final double nanosPerCall,
+                                                 final int lesser,
+                                                 final int equal,
+                                                 final int greater) {
+        double low = 0.0;
+        double high = 1.0;
+        for (int iteration = 0; iteration < 30; iteration++) {
+            final double middle = (low + high) / 2;
+            final double calls = exhaustiveCalls(
+                    sampledSize(lesser, middle, 1), sampledSize(equal, middle, 2), sampledSize(greater, middle, 1)
+            );
+            if (calls * nanosPerCall <= budgetNanos)
+                low = middle;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    static int sampledSize(final int size, final double fraction, final int minimum) {
+        return Math.min(size, Math.max(minimum, (int) Math.ceil(size * fraction)));
+    }
+
+    // random subset keeping the original order of the instances
+    static <A> List<A> sample(final List<A> instances, final double fraction, final int minimum, final long seed) {
+        final int size = sampledSize(instances.size(), fraction, minimum);
+        if (size == instances.size())
+            return instances;
+
+        final List<Integer> indexes = new ArrayList<Integer>(instances.size());
+        for (int index = 0; index < instances.size(); index++) {
+            indexes.add(index);
+        }
+        Collections.shuffle(indexes, new Random(seed));
+        final List<Integer> chosen = new ArrayList<Integer>(indexes.subList(0, size));
+        Collections.sort(chosen);
+
+        final List<A> sampled = new ArrayList<A>(size);
+        for (final Integer index : chosen) {
+            sampled.add(instances.get(index));
+        }
+        return sampled;
+    }
+
+    private static String describe(final double nanos) {
+        return format("%.3f ms", nanos / 1e6);
+    }
+}
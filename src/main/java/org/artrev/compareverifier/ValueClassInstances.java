@@ -0,0 +1,335 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Builds the instances of a value class from a domain of values for every
+ * component of its canonical constructor and splits them into the lesser,
+ * equal and greater instances needed by {@link ComparableVerifier}.
+ * <p>
+ * The components are declared in the order of the constructor parameters,
+ * every domain in the ascending order of its values. The instances are
+ * expected to be ordered by their components, compared one after another in
+ * the declared order, unless a different order is given by
+ * {@link #compareComponents(int...)}. The median of the generated pool is the
+ * pivot, the instances ordered before it are the lesser, the ones after it
+ * the greater, and two separately constructed copies of it are the equal
+ * instances.
+ * <p>
+ * When all the combinations of the component values do not fit into the
+ * pool, the combinations are sampled uniformly with a fixed seed, so the
+ * pool is well spread and the same in every run.
+ * <p>
+ * <b>Example Usage:</b>
+ * <pre>
+ * {@code
+ * final ValueClassInstances<Money> money = VerificationInstancesCreators
+ *         .forValueClass(Money.class)
+ *         .component(String.class, "CHF", "EUR", "USD")
+ *         .component(long.class, -100L, 0L, 1L, 100L, Long.MAX_VALUE);
+ *
+ * ComparableVerifier
+ *     .forInstances(money.lesser(), money.equal(), money.greater())
+ *     .verify();
+ * }
+ * </pre>
+ *
+ * @param <A> type of the value class
+ * @see VerificationInstancesCreators#forValueClass(Class)
+ */
+public final class ValueClassInstances<A> {
+    private static final int DEFAULT_POOL_SIZE = 64;
+    private static final long SEED = 42L;
+
+    private final Class<A> type;
+    private final List<Class<?>> componentTypes = new ArrayList<Class<?>>();
+    private final List<Object[]> domains = new ArrayList<Object[]>();
+    private int[] order;
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    // built on the first use, the creators only construct the instances
+    private Constructor<A> constructor;
+    private int[][] lesserTuples;
+    private int[] pivotTuple;
+    private int[][] greaterTuples;
+
+    ValueClassInstances(final Class<A> type) {
+        this.type = type;
+    }
+
+    /**
+     * Declares the next component of the canonical constructor.
+     *
+     * @param componentType type of the constructor parameter, e.g. {@code int.class}.
+     * @param domain        distinct values of the component in the ascending order,
+     *                      which is checked for values of a Comparable class.
+     * @param <C>           type of the component.
+     * @return instance of {@link ValueClassInstances}
+     */
+    public <C> ValueClassInstances<A> component(final Class<C> componentType, final C... domain) {
+        checkNotBuilt();
+        if (null == componentType)
+            throw new IllegalArgumentException("Component type cannot be null!");
+        if (null == domain || domain.length == 0)
+            throw new IllegalArgumentException("Component domain has to contain at least one value!");
+        checkAscending(domain);
+
+        componentTypes.add(componentType);
+        domains.add(domain.clone());
+        return this;
+    }
+
+    /**
+     * Sets the order in which the components are compared, by default the
+     * order in which they were declared.
+     *
+     * @param components indexes of all the declared components, starting at 0.
+     * @return instance of {@link ValueClassInstances}
+     */
+    public ValueClassInstances<A> compareComponents(final int... components) {
+        checkNotBuilt();
+        if (null == components)
+            throw new IllegalArgumentException("Component order cannot be null!");
+
+        this.order = components.clone();
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of distinct combinations of the component values
+     * in the pool, by default 64.
+     *
+     * @param poolSize at least 3 combinations.
+     * @return instance of {@link ValueClassInstances}
+     */
+    public ValueClassInstances<A> poolSize(final int poolSize) {
+        checkNotBuilt();
+        if (poolSize < 3)
+            throw new IllegalArgumentException("Pool size has to be at least 3!");
+
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    /**
+     * @return creator of the instances ordered before the pivot.
+     */
+    public VerificationInstancesCreator<A> lesser() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return construct(lesserTuples);
+            }
+        };
+    }
+
+    /**
+     * @return creator of two separately constructed copies of the pivot.
+     */
+    public VerificationInstancesCreator<A> equal() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return construct(new int[][]{pivotTuple, pivotTuple});
+            }
+        };
+    }
+
+    /**
+     * @return creator of the instances ordered after the pivot.
+     */
+    public VerificationInstancesCreator<A> greater() {
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                build();
+                return construct(greaterTuples);
+            }
+        };
+    }
+
+    // the order of the components is the order of the indexes of their values,
+    // so a repeated value or a value out of the natural order breaks it
+    @SuppressWarnings("unchecked")
+    private static void checkAscending(final Object[] domain) {
+        final Set<Object> values = new HashSet<Object>();
+        for (int index = 0; index < domain.length; index++) {
+            if (!values.add(domain[index]))
+                throw new IllegalArgumentException(format("Component domain contains %s more than once!", domain[index]));
+            if (index == 0)
+                continue;
+
+            final Object previous = domain[index - 1];
+            final Object value = domain[index];
+            if (previous instanceof Comparable && null != value && previous.getClass() == value.getClass()
+                    && ((Comparable<Object>) previous).compareTo(value) >= 0)
+                throw new IllegalArgumentException(format(
+                        "Component domain has to be in the ascending order, %s is not lesser than %s!", previous, value));
+        }
+    }
+
+    private void checkNotBuilt() {
+        if (null != constructor)
+            throw new IllegalStateException("ValueClassInstances cannot be changed after the instances were created!");
+    }
+
+    private synchronized void build() {
+        if (null != constructor)
+            return;
+        if (domains.isEmpty())
+            throw new IllegalStateException("At least one component has to be declared!");
+
+        final int[] comparison = comparisonOrder();
+        final List<int[]> pool = pool();
+        if (pool.size() < 3)
+            throw new IllegalStateException("Component domains have to allow at least 3 distinct instances!");
+
+        // tuples hold the indexes of the values in the domains, so they are
+        // ordered by comparing the indexes
+        Collections.sort(pool, new Comparator<int[]>() {
+            @Override
+            public int compare(final int[] first, final int[] second) {
+                for (final int component : comparison) {
+                    if (first[component] != second[component])
+                        return first[component] < second[component] ? -1 : 1;
+                }
+                return 0;
+            }
+        });
+        final int pivot = pool.size() / 2;
+        lesserTuples = pool.subList(0, pivot).toArray(new int[pivot][]);
+        pivotTuple = pool.get(pivot);
+        greaterTuples = pool.subList(pivot + 1, pool.size()).toArray(new int[pool.size() - pivot - 1][]);
+        constructor = lookupConstructor();
+    }
+
+    private int[] comparisonOrder() {
+        if (null == order) {
+            final int[] declared = new int[domains.size()];
+            for (int component = 0; component < declared.length; component++) {
+                declared[component] = component;
+            }
+            return declared;
+        }
+
+        final int[] sorted = order.clone();
+        Arrays.sort(sorted);
+        for (int component = 0; component < sorted.length; component++) {
+            if (sorted.length != domains.size() || sorted[component] != component)
+                throw new IllegalStateException(format(
+                        "Component order %s has to contain every one of the %d components exactly once!",
+                        Arrays.toString(order), domains.size()));
+        }
+        return order;
+    }
+
+    // distinct tuples of indexes into the domains
+    private List<int[]> pool() {
+        double combinations = 1;
+        for (final Object[] domain : domains) {
+            combinations *= domain.length;
+        }
+
+        final List<int[]> pool = new ArrayList<int[]>();
+        if (combinations <= poolSize) {
+            final int[] tuple = new int[domains.size()];
+            do {
+                pool.add(tuple.clone());
+            } while (next(tuple));
+            return pool;
+        }
+
+        final Random random = new Random(SEED);
+        final Set<List<Integer>> seen = new HashSet<List<Integer>>();
+        while (pool.size() < poolSize) {
+            final int[] tuple = new int[domains.size()];
+            final List<Integer> key = new ArrayList<Integer>(tuple.length);
+            for (int component = 0; component < tuple.length; component++) {
+                tuple[component] = random.nextInt(domains.get(component).length);
+                key.add(tuple[component]);
+            }
+            if (seen.add(key))
+                pool.add(tuple);
+        }
+        return pool;
+    }
+
+    // advances the tuple to the next combination, returns false after the last one
+    private boolean next(final int[] tuple) {
+        for (int component = tuple.length - 1; component >= 0; component--) {
+            if (++tuple[component] < domains.get(component).length)
+                return true;
+            tuple[component] = 0;
+        }
+        return false;
+    }
+
+    private Constructor<A> lookupConstructor() {
+        try {
+            final Constructor<A> found = type.getDeclaredConstructor(componentTypes.toArray(new Class<?>[0]));
+            found.setAccessible(true);
+            return found;
+        } catch (final NoSuchMethodException exc) {
+            throw new IllegalStateException(
+                    format("Type %s has no constructor taking %s!", type.getName(), componentTypes), exc
+            );
+        }
+    }
+
+    private List<A> construct(final int[][] tuples) {
+        final List<A> instances = new ArrayList<A>(tuples.length);
+        final Object[] arguments = new Object[domains.size()];
+        for (final int[] tuple : tuples) {
+            for (int component = 0; component < arguments.length; component++) {
+                arguments[component] = domains.get(component)[tuple[component]];
+            }
+            instances.add(newInstance(arguments));
+        }
+        return instances;
+    }
+
+    private A newInstance(final Object[] arguments) {
+        try {
+            return constructor.newInstance(arguments);
+        } catch (final InstantiationException exc) {
+            throw new IllegalStateException(format("Type %s cannot be instantiated!", type.getName()), exc);
+        } catch (final IllegalAccessException exc) {
+            throw new IllegalStateException(format("Constructor of %s is not accessible!", type.getName()), exc);
+        } catch (final InvocationTargetException exc) {
+            final Throwable cause = exc.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(format("Constructor of %s failed!", type.getName()), cause);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Defines a single unit of verification performed by {@link ComparableVerifier},
+ * e.g. one contract rule checked on one block of the instance pairs.
+ *
+ * @see ComparableVerifier#checks(int)
+ */
+public interface VerificationCheck {
+    /**
+     * Returns the name of the verified rule, shared by all the blocks of the
+     * same rule, e.g. {@code "transitivity"}.
+     *
+     * @return name of the verified rule.
+     */
+    String rule();
+
+    /**
+     * Returns the name of this check, unique within the checks of a single
+     * verification, e.g. {@code "transitivity rows 0-63"}.
+     *
+     * @return name of this check.
+     */
+    String name();
+
+    /**
+     * Performs the check.
+     *
+     * @throws AssertionError when the rule is violated.
+     */
+    void run();
+}
@@ -15,9 +15,12 @@
  */
 package org.artrev.compareverifier;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * A collection of functions for easy creation of {@link VerificationInstancesCreator}
@@ -122,4 +125,166 @@ public final class VerificationInstancesCreators {
             }
         };
     }
+
+    /**
+     * Creates a {@link VerificationInstancesCreator} that reads the instances
+     * from a length-prefixed binary corpus file. Every entry in the file is
+     * stored as a big-endian 4 byte length followed by that many bytes, which
+     * is what {@link java.io.DataOutputStream#writeInt(int)} followed by
+     * {@link java.io.DataOutputStream#write(byte[])} produces.
+     * <p>
+     * The file is memory-mapped and the entries are decoded lazily, only once
+     * an instance is accessed for the first time. Every call to
+     * {@link VerificationInstancesCreator#create()} maps the file again, so
+     * the changes made to it between verifications are visible.
+     *
+     * @param file    corpus file with the instances.
+     * @param decoder function turning a single entry into an instance.
+     * @param <A>     type of the instances returned by the Creator.
+     * @return instance of {@link VerificationInstancesCreator}
+     */
+    public static <A> VerificationInstancesCreator<A> fromCorpus(final File file,
+                                                                 final InstanceDecoder<A> decoder) {
+        if (null == file)
+            throw new IllegalArgumentException("Corpus file cannot be null!");
+        if (null == decoder)
+            throw new IllegalArgumentException("InstanceDecoder cannot be null!");
+
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                return MappedCorpus.map(file).decodeLazily(decoder);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link VerificationInstancesCreator} that reads the instances
+     * from a length-prefixed binary corpus file. For more information please
+     * check {@link #fromCorpus(File, InstanceDecoder)}.
+     *
+     * @param path    path of the corpus file with the instances.
+     * @param decoder function turning a single entry into an instance.
+     * @param <A>     type of the instances returned by the Creator.
+     * @return instance of {@link VerificationInstancesCreator}
+     */
+    public static <A> VerificationInstancesCreator<A> fromCorpus(final String path,
+                                                                 final InstanceDecoder<A> decoder) {
+        if (null == path)
+            throw new IllegalArgumentException("Corpus file cannot be null!");
+
+        return fromCorpus(new File(path), decoder);
+    }
+
+    /**
+     * Creates a {@link VerificationInstancesCreator} that invokes the given
+     * creator only once and returns the same, unmodifiable, List of instances
+     * on every subsequent call. It is handy when the same expensive creator
+     * is used by many {@link ComparableVerifier}s.
+     * <p>
+     * The instances are kept in a cache shared by all the caching creators.
+     * They are held through soft references, so they can be reclaimed under
+     * memory pressure, and the least recently used ones are evicted when the
+     * cache holds more than {@code 2^20} instances in total. Reclaimed or
+     * evicted instances are simply created again. The cache does not keep the
+     * given creator alive, its entry is dropped once the creator is garbage
+     * collected.
+     * <p>
+     * The returned creator can be used from many threads at once, the given
+     * creator is never invoked concurrently for the same cache entry.
+     *
+     * @param creator creator whose instances should be cached.
+     * @param <A>     type of the instances returned by the Creator.
+     * @return instance of {@link VerificationInstancesCreator}
+     */
+    public static <A> VerificationInstancesCreator<A> cached(final VerificationInstancesCreator<A> creator) {
+        if (null == creator)
+            throw new IllegalArgumentException("VerificationInstancesCreator cannot be null!");
+
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                return InstancesCache.SHARED.get(creator);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link VerificationInstancesCreator} that starts the given
+     * asynchronous creator and waits for its instances. An exception the
+     * creation failed with is rethrown as is, when it is unchecked.
+     *
+     * @param creator asynchronous creator of the instances.
+     * @param <A>     type of the instances returned by the Creator.
+     * @return instance of {@link VerificationInstancesCreator}
+     */
+    public static <A> VerificationInstancesCreator<A> fromAsync(final AsyncVerificationInstancesCreator<A> creator) {
+        if (null == creator)
+            throw new IllegalArgumentException("AsyncVerificationInstancesCreator cannot be null!");
+
+        return new VerificationInstancesCreator<A>() {
+            @Override
+            public List<A> create() {
+                final Future<List<A>> instances = creator.create();
+                if (null == instances)
+                    throw new IllegalArgumentException("AsyncVerificationInstancesCreator cannot return null future!");
+
+                try {
+                    return instances.get();
+                } catch (final InterruptedException exc) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Asynchronous instances creation was interrupted!", exc);
+                } catch (final ExecutionException exc) {
+                    final Throwable cause = exc.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new IllegalStateException("Asynchronous instances creation failed!", cause);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates {@link CoverageGuidedInstances} keeping only the generated
+     * instances that reach new branches of {@code compareTo} of the given
+     * type and splitting them into the lesser, equal and greater creators.
+     * The type has to be instrumented by the JaCoCo agent the JVM runs with.
+     * <p>
+     * For more information please check {@link CoverageGuidedInstances}.
+     *
+     * @param type      class under test, whose coverage is measured.
+     * @param generator generator of the candidate instances.
+     * @param <A>       type of the instances returned by the Creators.
+     * @return instance of {@link CoverageGuidedInstances}
+     */
+    public static <A extends Comparable<A>> CoverageGuidedInstances<A> coverageGuided(final Class<A> type,
+                                                                                      final InstanceGenerator<A> generator) {
+        if (null == type)
+            throw new IllegalArgumentException("Type under test cannot be null!");
+        if (null == generator)
+            throw new IllegalArgumentException("InstanceGenerator cannot be null!");
+
+        return new CoverageGuidedInstances<A>(type, generator, null);
+    }
+
+    /**
+     * Creates {@link ValueClassInstances} building the instances of the given
+     * value class from domains of its component values and splitting them
+     * into the lesser, equal and greater creators. The instances are created
+     * through the canonical constructor, which is looked up only once.
+     * <p>
+     * For more information please check {@link ValueClassInstances}.
+     *
+     * @param type value class with a constructor taking all the components.
+     * @param <A>  type of the instances returned by the Creators.
+     * @return instance of {@link ValueClassInstances}
+     */
+    public static <A> ValueClassInstances<A> forValueClass(final Class<A> type) {
+        if (null == type)
+            throw new IllegalArgumentException("Value class cannot be null!");
+
+        return new ValueClassInstances<A>(type);
+    }
 }
@@ -0,0 +1,120 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Receives notifications about the checks performed by {@link ComparableVerifier}.
+ * All methods do nothing by default, so only the interesting ones need to be
+ * overridden.
+ * <p>
+ * Progress of the checks running on many threads is reported from those
+ * threads, but never from two threads at the same time for the same check.
+ * With {@link VerificationStrategy#PARALLEL} the blocks of the pair space are
+ * checks of their own, started and finished on the executor threads.
+ *
+ * @see ComparableVerifier#listener(VerificationListener)
+ */
+public abstract class VerificationListener {
+    /**
+     * Called after every call of a {@link VerificationInstancesCreator}.
+     *
+     * @param type         kind of the created instances, {@code "lesser"},
+     *                     {@code "equal"} or {@code "greater"}.
+     * @param instances    number of the created instances.
+     * @param elapsedNanos time the creation took in nanoseconds.
+     */
+    public void instancesCreated(final String type, final int instances, final long elapsedNanos) {
+    }
+
+    /**
+     * Called once the instances are created, with the strategy the contract
+     * checks are performed with.
+     *
+     * @param strategy strategy of the verification.
+     * @param reason   human readable reason of the choice, e.g. the estimated
+     *                 time of the exhaustive checks against the time budget.
+     * @see ComparableVerifier#auto(long, java.util.concurrent.TimeUnit)
+     */
+    public void strategyChosen(final VerificationStrategy strategy, final String reason) {
+    }
+
+    /**
+     * Called before the check is performed.
+     *
+     * @param check check that is starting.
+     */
+    public void checkStarted(final VerificationCheck check) {
+    }
+
+    /**
+     * Called periodically while the check is performed, at most every 100
+     * milliseconds.
+     *
+     * @param progress snapshot of the progress of the running check.
+     */
+    public void progress(final VerificationProgress progress) {
+    }
+
+    /**
+     * Called after the check passed.
+     *
+     * @param check        check that passed.
+     * @param elapsedNanos time the check took in nanoseconds.
+     */
+    public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+    }
+
+    /**
+     * Called after the check failed or was cancelled, before the failure is
+     * propagated to the caller.
+     *
+     * @param check   check that failed.
+     * @param failure {@link AssertionError} describing the violation or any
+     *                other failure, e.g. a {@link java.util.concurrent.CancellationException}.
+     */
+    public void checkFailed(final VerificationCheck check, final Throwable failure) {
+    }
+
+    /**
+     * Returns the duration from which a single {@code compareTo} call is
+     * reported by {@link #slowComparison(VerificationCheck, Object, Object, long)}.
+     * Asked once at the start of every check. The comparisons are timed only
+     * when the returned value is not negative, so there is no cost otherwise.
+     * The time critical loops of the throughput and allocation checks are
+     * never timed.
+     *
+     * @return threshold in nanoseconds or a negative value to not time the
+     * comparisons, which is the default.
+     */
+    public long slowComparisonThresholdNanos() {
+        return -1;
+    }
+
+    /**
+     * Called when a single {@code first.compareTo(second)} call took at least
+     * {@link #slowComparisonThresholdNanos()}.
+     *
+     * @param check        check that made the comparison.
+     * @param first        instance whose {@code compareTo} was called.
+     * @param second       argument of the call.
+     * @param elapsedNanos time the call took in nanoseconds.
+     */
+    public void slowComparison(final VerificationCheck check,
+                               final Object first,
+                               final Object second,
+                               final long elapsedNanos) {
+    }
+}
@@ -0,0 +1,136 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live metrics of a verification. The comparisons of the running checks are
+ * read on demand from their own progress counters, so the checks do not
+ * contend on any counter shared by the whole verification, only finished
+ * checks are added to the totals. The remaining comparisons are estimated
+ * for every check known up front, including the ones not started yet.
+ */
+final class VerificationMetrics implements VerificationMetricsMXBean {
+    private final long start = System.nanoTime();
+    // expected comparisons of the checks not started yet
+    private final ConcurrentMap<VerificationCheck, Long> pending = new ConcurrentHashMap<VerificationCheck, Long>();
+    // expected comparisons of the running checks
+    private final ConcurrentMap<CheckProgress, Long> running = new ConcurrentHashMap<CheckProgress, Long>();
+    private final AtomicLong finishedComparisons = new AtomicLong();
+    private final AtomicLong violations = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> finishedNanosByRule = new ConcurrentHashMap<String, AtomicLong>();
+
+    void expect(final VerificationCheck check, final long comparisons) {
+        pending.put(check, comparisons);
+    }
+
+    void checkStarted(final CheckProgress progress) {
+        final Long expected = pending.remove(progress.check());
+        running.put(progress, null == expected ? 0L : expected);
+    }
+
+    void checkEnded(final CheckProgress progress, final boolean violation) {
+        if (null == running.remove(progress))
+            return;
+
+        finishedComparisons.addAndGet(progress.comparisons());
+        finishedNanos(progress.check().rule()).addAndGet(progress.elapsedNanos());
+        if (violation)
+            violations.incrementAndGet();
+    }
+
+    @Override
+    public String getCurrentCheck() {
+        final StringBuilder names = new StringBuilder();
+        for (final CheckProgress progress : running.keySet()) {
+            if (names.length() > 0)
+                names.append(", ");
+            names.append(progress.check().name());
+        }
+        return names.toString();
+    }
+
+    @Override
+    public long getComparisonsDone() {
+        long comparisons = finishedComparisons.get();
+        for (final CheckProgress progress : running.keySet()) {
+            comparisons += progress.comparisons();
+        }
+        return comparisons;
+    }
+
+    @Override
+    public long getComparisonsRemaining() {
+        long remaining = 0;
+        for (final Long expected : pending.values()) {
+            remaining += expected;
+        }
+        for (final Map.Entry<CheckProgress, Long> check : running.entrySet()) {
+            final CheckProgress progress = check.getKey();
+            final long rows = progress.completedRows();
+            if (rows > 0)
+                remaining += (long) ((double) progress.comparisons() / rows
+                        * Math.max(0L, progress.totalRows() - rows));
+            else
+                remaining += check.getValue();
+        }
+        return remaining;
+    }
+
+    @Override
+    public double getComparisonsPerSecond() {
+        final long elapsed = System.nanoTime() - start;
+        return elapsed == 0 ? 0.0 : getComparisonsDone() * 1e9 / elapsed;
+    }
+
+    @Override
+    public long getViolationsFound() {
+        return violations.get();
+    }
+
+    @Override
+    public Map<String, Long> getElapsedMillisByRule() {
+        final Map<String, Long> nanos = new TreeMap<String, Long>();
+        for (final Map.Entry<String, AtomicLong> rule : finishedNanosByRule.entrySet()) {
+            add(nanos, rule.getKey(), rule.getValue().get());
+        }
+        for (final CheckProgress progress : running.keySet()) {
+            add(nanos, progress.check().rule(), progress.elapsedNanos());
+        }
+
+        final Map<String, Long> millis = new TreeMap<String, Long>();
+        for (final Map.Entry<String, Long> rule : nanos.entrySet()) {
+            millis.put(rule.getKey(), rule.getValue() / 1000000L);
+        }
+        return millis;
+    }
+
+    private AtomicLong finishedNanos(final String rule) {
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong existing = finishedNanosByRule.putIfAbsent(rule, created);
+        return null == existing ? created : existing;
+    }
+
+    private static void add(final Map<String, Long> nanos, final String rule, final long elapsed) {
+        final Long previous = nanos.get(rule);
+        nanos.put(rule, null == previous ? elapsed : previous + elapsed);
+    }
+}
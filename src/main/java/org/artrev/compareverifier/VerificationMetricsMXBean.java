@@ -0,0 +1,61 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the live metrics of a running verification
+ * over JMX, e.g. to watch long verifications with the same tools as services.
+ *
+ * @see ComparableVerifier#registerMetrics(javax.management.ObjectName)
+ */
+public interface VerificationMetricsMXBean {
+    /**
+     * @return names of the checks running at the moment, separated by commas,
+     * or an empty string when no check is running.
+     */
+    String getCurrentCheck();
+
+    /**
+     * @return number of comparisons made so far.
+     */
+    long getComparisonsDone();
+
+    /**
+     * @return estimated number of comparisons remaining in the running checks
+     * and in the checks not started yet. The throughput check is sized by the
+     * clock and is not included.
+     */
+    long getComparisonsRemaining();
+
+    /**
+     * @return average number of comparisons per second since the verification
+     * started.
+     */
+    double getComparisonsPerSecond();
+
+    /**
+     * @return number of checks that failed so far.
+     */
+    long getViolationsFound();
+
+    /**
+     * @return time spent in the checks of every rule in milliseconds, including
+     * the running ones.
+     */
+    Map<String, Long> getElapsedMillisByRule();
+}
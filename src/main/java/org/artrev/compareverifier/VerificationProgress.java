@@ -0,0 +1,113 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import static java.lang.String.format;
+
+/**
+ * Immutable snapshot of the progress of a single {@link VerificationCheck}.
+ * The progress is measured in rows of the pair space, every row covering a
+ * single instance compared to the instances it is checked against.
+ *
+ * @see VerificationListener#progress(VerificationProgress)
+ */
+public final class VerificationProgress {
+    private final VerificationCheck check;
+    private final long completedRows;
+    private final long totalRows;
+    private final long comparisons;
+    private final long elapsedNanos;
+
+    VerificationProgress(final VerificationCheck check,
+                         final long completedRows,
+                         final long totalRows,
+                         final long comparisons,
+                         final long elapsedNanos) {
+        this.check = check;
+        this.completedRows = completedRows;
+        this.totalRows = totalRows;
+        this.comparisons = comparisons;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return check the progress belongs to.
+     */
+    public VerificationCheck check() {
+        return check;
+    }
+
+    /**
+     * @return number of rows completed so far.
+     */
+    public long completedRows() {
+        return completedRows;
+    }
+
+    /**
+     * @return number of rows of the whole check.
+     */
+    public long totalRows() {
+        return totalRows;
+    }
+
+    /**
+     * @return number of comparisons made so far.
+     */
+    public long comparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return time elapsed since the check started in nanoseconds.
+     */
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return completed fraction of the check, from 0 to 1.
+     */
+    public double fraction() {
+        return totalRows == 0 ? 1.0 : Math.min(1.0, (double) completedRows / totalRows);
+    }
+
+    /**
+     * @return average number of comparisons per second so far.
+     */
+    public double comparisonsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : comparisons * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Estimates the remaining time of the check, assuming the remaining rows
+     * take as long as the completed ones on average.
+     *
+     * @return estimated remaining time in nanoseconds or -1 if no row was
+     * completed yet.
+     */
+    public long etaNanos() {
+        if (completedRows == 0)
+            return -1;
+        return (long) (elapsedNanos * ((double) Math.max(0L, totalRows - completedRows) / completedRows));
+    }
+
+    @Override
+    public String toString() {
+        return format("%s: %.1f%% (%.0f comparisons/s, ETA %d ms)",
+                check.name(), fraction() * 100, comparisonsPerSecond(), etaNanos() / 1000000L);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+/**
+ * Defines how {@link ComparableVerifier} checks the reverse and transitivity
+ * rules, which dominate the cost of a verification.
+ *
+ * @see ComparableVerifier#strategy(VerificationStrategy)
+ * @see ComparableVerifier#auto(long, java.util.concurrent.TimeUnit)
+ */
+public enum VerificationStrategy {
+    /**
+     * Checks all the pairs and triples of instances on the calling thread,
+     * the fastest choice for small pools.
+     */
+    EXHAUSTIVE,
+    /**
+     * Checks all the pairs and triples of instances, with the blocks of the
+     * pair space spread over all the available processors by a single
+     * executor of {@link ComparableVerifier#verify()}. The checks returned by
+     * {@link ComparableVerifier#checks(int)} are the plain blocks, which the
+     * caller runs in parallel, e.g. the JUnit 5 parallel execution.
+     */
+    PARALLEL,
+    /**
+     * Checks all the pairs and triples of a random sample of every group of
+     * instances, chosen with a fixed seed, so the same in every run.
+     */
+    SAMPLED,
+    /**
+     * Sorts all the instances and checks only the neighbours in the sorted
+     * order, which takes {@code O(n log n)} comparisons. Sorting detects most
+     * of the transitivity violations on the way, the neighbours are checked
+     * for the reverse rule and for the order of the lesser, equal and greater
+     * instances. It is not exhaustive, a violation among instances that are
+     * not neighbours is missed when the sort does not run into it.
+     */
+    SORT_BASED
+}
@@ -0,0 +1,144 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import org.artrev.compareverifier.discovery.valid.Money;
+import org.hamcrest.CoreMatchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class ComparableDiscoveryTest {
+    private static final String VALID = "org.artrev.compareverifier.discovery.valid";
+    private static final String BROKEN = "org.artrev.compareverifier.discovery.broken";
+    private static final String UNVERIFIED = "org.artrev.compareverifier.discovery.unverified";
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void should_find_direct_and_inherited_comparable_types() {
+        // expect:
+        assertEquals(
+                Arrays.asList(VALID + ".Money", VALID + ".Version"),
+                ComparableDiscovery.forPackages(VALID).comparableTypes()
+        );
+    }
+
+    @Test
+    public void should_pass_when_all_types_are_correct() {
+        // when:
+        ComparableDiscovery
+                .forPackages(VALID)
+                .threads(2)
+                .verifyAll();
+    }
+
+    @Test
+    public void should_fail_with_all_failing_types() {
+        // given:
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(CoreMatchers.containsString("1 of 3 Comparable types failed verification!"));
+        expectedException.expectMessage(CoreMatchers.containsString(BROKEN + ".Reversed: "));
+
+        // when:
+        ComparableDiscovery
+                .forPackages(VALID, BROKEN)
+                .verifyAll();
+    }
+
+    @Test
+    public void should_fail_for_types_without_factories_when_required() {
+        // given:
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(CoreMatchers.containsString(UNVERIFIED + ".Plain: has no instance factories!"));
+
+        // when:
+        ComparableDiscovery
+                .forPackages(VALID, UNVERIFIED)
+                .requireFactories(true)
+                .verifyAll();
+    }
+
+    @Test
+    public void should_throw_exception_when_no_factories_are_found() {
+        // given:
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("No instance factories found in packages [" + UNVERIFIED + "]!");
+
+        // when:
+        ComparableDiscovery
+                .forPackages(UNVERIFIED)
+                .verifyAll();
+    }
+
+    @Test
+    public void should_scan_jar_files() throws IOException {
+        // given:
+        final File jar = temporaryFolder.newFile("money.jar");
+        final JarOutputStream output = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            // directory entries as written by the jar tool
+            String directory = "";
+            for (final String name : VALID.split("\\.")) {
+                directory += name + "/";
+                output.putNextEntry(new JarEntry(directory));
+            }
+            output.putNextEntry(new JarEntry(directory + "Money.class"));
+            final InputStream input = Money.class.getResourceAsStream("Money.class");
+            try {
+                final byte[] buffer = new byte[4096];
+                for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                    output.write(buffer, 0, read);
+                }
+            } finally {
+                input.close();
+            }
+        } finally {
+            output.close();
+        }
+        // resources only from the jar, classes from the test class path
+        final ClassLoader classLoader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(final String name) throws IOException {
+                return findResources(name);
+            }
+        };
+
+        // expect:
+        assertEquals(
+                Arrays.asList(VALID + ".Money"),
+                ComparableDiscovery.forPackages(VALID).classLoader(classLoader).comparableTypes()
+        );
+    }
+}
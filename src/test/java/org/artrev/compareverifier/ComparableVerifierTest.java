@@ -17,15 +17,40 @@ package org.artrev.compareverifier;
 
 import org.artrev.compareverifier.implementations.*;
 import org.hamcrest.CoreMatchers;
+import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
-
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(Enclosed.class)
 public class ComparableVerifierTest {
@@ -335,6 +360,28 @@ public class ComparableVerifierTest {
                     .verify();
         }
 
+        @Test
+        public void should_report_hashCode_inconsistent_with_equals() {
+            // given:
+            final Correct first = new IdentityHashCode(42);
+            final Correct second = new IdentityHashCode(42);
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(first, second);
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+            assumeTrue(first.hashCode() != second.hashCode());
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("have different hash codes, hashCode is not consistent with equals!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .verify();
+        }
+
         @Test
         public void should_detect_inconsistency_in_BigDecimal() {
             // because BigDecimal processes differently the precision
@@ -364,6 +411,60 @@ public class ComparableVerifierTest {
                     .suppressConsistentWithEquals(false)
                     .verify();
         }
+
+        @Test
+        public void should_detect_inconsistency_in_BigDecimal_outside_of_equal_instances() {
+            // given:
+            final VerificationInstancesCreator<BigDecimal> lesser =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("0.0"),
+                            new BigDecimal("1.0"),
+                            new BigDecimal("1.00")
+                    );
+            final VerificationInstancesCreator<BigDecimal> equal =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("42.0"),
+                            new BigDecimal("42.0")
+                    );
+            final VerificationInstancesCreator<BigDecimal> greater =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("100.0")
+                    );
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("CompareTo is not consistent with equals!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .verify();
+        }
+
+        @Test
+        public void should_allow_repeated_instances_in_every_group() {
+            // given:
+            final VerificationInstancesCreator<BigDecimal> lesser =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("0.0"),
+                            new BigDecimal("0.0"),
+                            new BigDecimal("1.0")
+                    );
+            final VerificationInstancesCreator<BigDecimal> equal =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("42.0"),
+                            new BigDecimal("42.0")
+                    );
+            final VerificationInstancesCreator<BigDecimal> greater =
+                    VerificationInstancesCreators.from(
+                            new BigDecimal("100.0"),
+                            new BigDecimal("100.0")
+                    );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .verify();
+        }
     }
 
     public static class SuppressEqualsToNullReturnsFalse {
@@ -674,6 +775,29 @@ public class ComparableVerifierTest {
         @Rule
         public ExpectedException expectedException = ExpectedException.none();
 
+        @Test
+        public void should_report_failed_sort_of_consistency_check() {
+            // given:
+            final Correct[] tournament = new Correct[81];
+            for (int index = 0; index < tournament.length; index++) {
+                tournament[index] = new Tournament(index + 1);
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(
+                    "Sorting the instances detected a violation of the general contract of compareTo when comparing"
+            );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct, Correct>from(tournament),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(5000)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(6000))
+                    )
+                    .verify();
+        }
+
         @Test
         public void should_pass_for_all_instances() {
             // given:
@@ -757,5 +881,1669 @@ public class ComparableVerifierTest {
                     .verify();
         }
     }
-}
 
+    public static class ReplayCounterexamples {
+        private static final InstanceEncoder<Correct> ENCODER =
+                new InstanceEncoder<Correct>() {
+                    @Override
+                    public byte[] encode(final Correct instance) {
+                        return ByteBuffer.allocate(4).putInt(instance.value).array();
+                    }
+                };
+
+        private static final InstanceDecoder<Correct> DECODER =
+                new InstanceDecoder<Correct>() {
+                    @Override
+                    public Correct decode(final ByteBuffer bytes) {
+                        return new Correct(bytes.getInt());
+                    }
+                };
+
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_record_counterexample_on_failure() {
+            // given:
+            final File corpus = new File(temporaryFolder.getRoot(), "replay.bin");
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(
+                            new Correct(0),
+                            new Correct(43)
+                    );
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(
+                            new Correct(42),
+                            new Correct(42)
+                    );
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(
+                            new Correct(1),
+                            new Correct(101)
+                    );
+
+            // when:
+            boolean failed = false;
+            try {
+                ComparableVerifier
+                        .forInstances(lesser, equal, greater)
+                        .replayCorpus(corpus, ENCODER, DECODER)
+                        .verify();
+            } catch (final AssertionError error) {
+                failed = true;
+            }
+
+            // then:
+            assertTrue(failed);
+            assertTrue(corpus.exists());
+        }
+
+        @Test
+        public void should_fail_on_recorded_counterexample_before_creating_instances() {
+            // given:
+            final File corpus = new File(temporaryFolder.getRoot(), "replay.bin");
+            try {
+                ComparableVerifier
+                        .forInstances(
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(0)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(42)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(1))
+                        )
+                        .replayCorpus(corpus, ENCODER, DECODER)
+                        .verify();
+            } catch (final AssertionError ignored) {
+                // the counterexample is now recorded
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Instances Correct{ value = 0 }, Correct{ value = 42 }, Correct{ value = 1 }, are not transitive! (replayed from");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances()
+                    )
+                    .replayCorpus(corpus, ENCODER, DECODER)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_recorded_counterexample_in_checks_when_creator_fails() {
+            // given:
+            final File corpus = new File(temporaryFolder.getRoot(), "replay.bin");
+            try {
+                ComparableVerifier
+                        .forInstances(
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(0)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(42)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(1))
+                        )
+                        .replayCorpus(corpus, ENCODER, DECODER)
+                        .verify();
+            } catch (final AssertionError ignored) {
+                // the counterexample is now recorded
+            }
+
+            // when:
+            final List<VerificationCheck> checks = ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances()
+                    )
+                    .replayCorpus(corpus, ENCODER, DECODER)
+                    .checks();
+
+            // then:
+            assertEquals(2, checks.size());
+            assertEquals("replay", checks.get(0).rule());
+            assertEquals("instancesCreation", checks.get(1).rule());
+            String replayed = null;
+            try {
+                checks.get(0).run();
+            } catch (final AssertionError error) {
+                replayed = error.getMessage();
+            }
+            assertTrue(replayed.contains("(replayed from"));
+            String created = null;
+            try {
+                checks.get(1).run();
+            } catch (final IllegalArgumentException exc) {
+                created = exc.getMessage();
+            }
+            assertNotNull(created);
+        }
+
+        @Test
+        public void should_pass_without_recording_for_correct_instances() {
+            // given:
+            final File corpus = new File(temporaryFolder.getRoot(), "replay.bin");
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .replayCorpus(corpus, ENCODER, DECODER)
+                    .verify();
+
+            // then:
+            assertFalse(corpus.exists());
+        }
+
+        @Test
+        public void should_report_every_replayed_counterexample_as_a_row() throws Exception {
+            // given:
+            final File file = new File(temporaryFolder.getRoot(), "replay.bin");
+            final ReplayCorpus<Correct> corpus = new ReplayCorpus<Correct>(file, ENCODER, DECODER);
+            for (int value = 0; value < 3; value++) {
+                final ReplayCorpus.Counterexample<Correct> counterexample = new ReplayCorpus.Counterexample<Correct>();
+                counterexample.lesser.add(new Correct(value));
+                counterexample.equal.add(new Correct(value + 1000));
+                counterexample.greater.add(new Correct(value + 2000));
+                corpus.record(counterexample);
+            }
+            final List<VerificationProgress> reported = new ArrayList<VerificationProgress>();
+            final VerificationListener listener = new VerificationListener() {
+                private boolean slept;
+
+                @Override
+                public void progress(final VerificationProgress progress) {
+                    if ("replay".equals(progress.check().rule()))
+                        reported.add(progress);
+                }
+
+                @Override
+                public long slowComparisonThresholdNanos() {
+                    return 0;
+                }
+
+                @Override
+                public void slowComparison(final VerificationCheck check,
+                                           final Object first,
+                                           final Object second,
+                                           final long elapsedNanos) {
+                    // the first counterexample outlasts the report interval
+                    if (slept)
+                        return;
+                    slept = true;
+                    try {
+                        Thread.sleep(150);
+                    } catch (final InterruptedException exc) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(0)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(42), new Correct(42)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(100))
+                    )
+                    .replayCorpus(file, ENCODER, DECODER)
+                    .listener(listener)
+                    .verify();
+
+            // then:
+            assertFalse(reported.isEmpty());
+            for (final VerificationProgress progress : reported) {
+                assertEquals(3, progress.totalRows());
+                assertTrue(progress.completedRows() <= progress.totalRows());
+            }
+        }
+
+        @Test
+        public void should_keep_counterexamples_recorded_concurrently_apart() throws Exception {
+            // given:
+            final ReplayCorpus<Correct> corpus =
+                    new ReplayCorpus<Correct>(new File(temporaryFolder.getRoot(), "replay.bin"), ENCODER, DECODER);
+            final int recorded = 64;
+            final CountDownLatch start = new CountDownLatch(1);
+            final ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int index = 0; index < recorded; index++) {
+                    final int value = index;
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            final ReplayCorpus.Counterexample<Correct> counterexample =
+                                    new ReplayCorpus.Counterexample<Correct>();
+                            counterexample.lesser.add(new Correct(value));
+                            counterexample.equal.add(new Correct(value + 1000));
+                            counterexample.greater.add(new Correct(value + 2000));
+                            start.await();
+                            corpus.record(counterexample);
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                for (final Future<Void> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // when:
+            final List<ReplayCorpus.Counterexample<Correct>> loaded = corpus.load();
+
+            // then:
+            assertEquals(recorded, loaded.size());
+            for (final ReplayCorpus.Counterexample<Correct> counterexample : loaded) {
+                assertEquals(1, counterexample.lesser.size());
+                assertEquals(counterexample.lesser.get(0).value + 1000, counterexample.equal.get(0).value);
+                assertEquals(counterexample.lesser.get(0).value + 2000, counterexample.greater.get(0).value);
+            }
+        }
+    }
+
+    public static class KeyChain {
+        private static final KeyExtractor<Correct, Integer> VALUE =
+                new KeyExtractor<Correct, Integer>() {
+                    @Override
+                    public Integer extract(final Correct instance) {
+                        return instance.value;
+                    }
+                };
+
+        private static final KeyExtractor<Correct, String> CONSTANT =
+                new KeyExtractor<Correct, String>() {
+                    @Override
+                    public String extract(final Correct instance) {
+                        return "constant";
+                    }
+                };
+
+        private static final KeyExtractor<Correct, Integer> NEGATED_VALUE =
+                new KeyExtractor<Correct, Integer>() {
+                    @Override
+                    public Integer extract(final Correct instance) {
+                        return -instance.value;
+                    }
+                };
+
+        // keys one apart are equal, so the equality of the keys is not transitive
+        private static final KeyExtractor<Correct, Near> NEAR_VALUE =
+                new KeyExtractor<Correct, Near>() {
+                    @Override
+                    public Near extract(final Correct instance) {
+                        return new Near(instance.value);
+                    }
+                };
+
+        private static final class Near implements Comparable<Near> {
+            private final int value;
+
+            Near(final int value) {
+                this.value = value;
+            }
+
+            @Override
+            public int compareTo(final Near other) {
+                return Math.abs(value - other.value) <= 1 ? 0 : (value < other.value ? -1 : 1);
+            }
+
+            @Override
+            public String toString() {
+                return String.valueOf(value);
+            }
+        }
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_for_chain_describing_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .keySegment(CONSTANT)
+                    .keySegment(VALUE)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_segment_breaking_the_order() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Key chain segment 2 breaks the order of Correct{ value = 0 } and Correct{ value = 42 }!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .keySegment(CONSTANT)
+                    .keySegment(NEGATED_VALUE)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_segment_with_equality_that_is_not_transitive() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1), new Correct(2));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Key chain segment 1 is not transitive for keys 0 and 2!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .keySegment(NEAR_VALUE)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_when_chain_does_not_distinguish_instances() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Key chain considers Correct{ value = 0 } and Correct{ value = 42 } equal!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .keySegment(CONSTANT)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_failed_sort_of_consistency_check() {
+            // given:
+            final Correct[] tournament = new Correct[81];
+            for (int index = 0; index < tournament.length; index++) {
+                tournament[index] = new Tournament(index + 1);
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(
+                    "Sorting the instances detected a violation of the general contract of compareTo when comparing"
+            );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct, Correct>from(tournament),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(5000)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(6000))
+                    )
+                    .keySegment(VALUE)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_when_compareTo_disagrees_with_chain_on_any_pair() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.<Correct, Correct>from(new ReversedAboveFifty(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.<Correct, Correct>from(new ReversedAboveFifty(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.<Correct, Correct>from(new ReversedAboveFifty(100), new ReversedAboveFifty(101));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("CompareTo of ReversedAboveFifty{ value = 100 } and ReversedAboveFifty{ value = 101 } does not agree with the key chain!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .keySegment(VALUE)
+                    .verify();
+        }
+    }
+
+    public static class DifferentialAgainst {
+        private static final Comparator<Correct> REFERENCE =
+                new Comparator<Correct>() {
+                    @Override
+                    public int compare(final Correct first, final Correct second) {
+                        return first.value < second.value ? -1 : (first.value == second.value ? 0 : 1);
+                    }
+                };
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_when_compareTo_orders_like_the_reference() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .differentialAgainst(REFERENCE)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_every_pair_ordered_differently() {
+            // given:
+            final Comparator<Correct> reversed = Collections.reverseOrder(REFERENCE);
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.allOf(
+                    CoreMatchers.containsString("CompareTo differs from the reference for 10 pair(s) of instances!"),
+                    CoreMatchers.containsString("Correct{ value = 0 } compared to Correct{ value = 42 }: -1 but the reference gives 1"),
+                    CoreMatchers.containsString("Correct{ value = 100 } compared to Correct{ value = 0 }: 1 but the reference gives -1")
+            ));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .differentialAgainst(reversed)
+                    .verify();
+        }
+
+        @Test
+        public void should_list_only_the_first_pairs_ordered_differently() {
+            // given:
+            final Comparator<Correct> reversed = Collections.reverseOrder(REFERENCE);
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1), new Correct(2));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101), new Correct(102));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.allOf(
+                    CoreMatchers.containsString("CompareTo differs from the reference for 54 pair(s) of instances!"),
+                    CoreMatchers.containsString("Correct{ value = 0 } compared to Correct{ value = 1 }: -1 but the reference gives 1"),
+                    CoreMatchers.not(CoreMatchers.containsString("Correct{ value = 102 } compared to")),
+                    CoreMatchers.containsString("... and 34 more pair(s)")
+            ));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .differentialAgainst(reversed)
+                    .verify();
+        }
+    }
+
+    public static class AllocationBudget {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_for_allocation_free_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .allocationBudget(0)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_for_allocating_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new AllocatingCompareTo(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new AllocatingCompareTo(42), new AllocatingCompareTo(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new AllocatingCompareTo(100));
+
+            // this check is only possible on JVMs exposing the allocated bytes
+            Assume.assumeNotNull(AllocationMeter.create());
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("but the budget is 0 bytes!"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .allocationBudget(0)
+                    .verify();
+        }
+    }
+
+    public static class RequireThroughput {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private static final VerificationInstancesCreator<Correct> LESSER =
+                VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+        private static final VerificationInstancesCreator<Correct> EQUAL =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private static final VerificationInstancesCreator<Correct> GREATER =
+                VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+        @Test
+        public void should_pass_for_throughput_above_the_floor() {
+            // when:
+            ComparableVerifier
+                    .forInstances(LESSER, EQUAL, GREATER)
+                    .requireThroughput(1)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_for_throughput_below_the_floor() {
+            // given:
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("is required!"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(LESSER, EQUAL, GREATER)
+                    .requireThroughput(Double.MAX_VALUE)
+                    .verify();
+        }
+    }
+
+    public static class ConcurrentStress {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_for_thread_safe_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .concurrentStress(4, 3)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_for_racy_cached_key() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser = new VerificationInstancesCreator<Correct>() {
+                @Override
+                public List<Correct> create() {
+                    return Arrays.<Correct>asList(new RacyCachedKey(1), new RacyCachedKey(2));
+                }
+            };
+            final VerificationInstancesCreator<Correct> equal = new VerificationInstancesCreator<Correct>() {
+                @Override
+                public List<Correct> create() {
+                    return Arrays.<Correct>asList(new RacyCachedKey(42), new RacyCachedKey(42));
+                }
+            };
+            final VerificationInstancesCreator<Correct> greater = new VerificationInstancesCreator<Correct>() {
+                @Override
+                public List<Correct> create() {
+                    return Arrays.<Correct>asList(new RacyCachedKey(100), new RacyCachedKey(101));
+                }
+            };
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("concurrently gave"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .concurrentStress(8, 5)
+                    .verify();
+        }
+    }
+
+    public static class JitStress {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_for_stable_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .jitStress(10)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_for_compareTo_changing_signs_over_time() {
+            // given:
+            final AtomicLong calls = new AtomicLong();
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(0, calls));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(42, calls), new UnstableCompareTo(42, calls));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(100, calls));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("in the first iteration!"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .jitStress(10)
+                    .verify();
+        }
+
+        @Test
+        public void should_refuse_more_instances_than_the_signs_fit() {
+            // given:
+            final Correct[] instances = new Correct[4096];
+            for (int index = 0; index < instances.length; index++) {
+                instances[index] = new Correct(index);
+            }
+            final VerificationInstancesCreator<Correct> lesser = VerificationInstancesCreators.from(instances);
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(5000));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(6000));
+
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage(
+                    "JIT stress keeps the signs of all the pairs of instances and supports at most 4096 instances, got 4098!"
+            );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .jitStress(1)
+                    .verify();
+        }
+
+        @Test
+        public void should_record_first_iteration_before_determinism_repeats_comparisons() {
+            // given:
+            final AtomicLong calls = new AtomicLong();
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(0, calls));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(42, calls), new UnstableCompareTo(42, calls));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new UnstableCompareTo(100, calls));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("in the first iteration!"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .repeatDeterminism(1000)
+                    .jitStress(10)
+                    .verify();
+        }
+    }
+
+    public static class RepeatDeterminism {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_pass_for_deterministic_compareTo() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .repeatDeterminism(5)
+                    .verify();
+        }
+
+        @Test
+        public void should_fail_for_compareTo_depending_on_mutable_state() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new AlternatingCompareTo(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new AlternatingCompareTo(42), new AlternatingCompareTo(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new AlternatingCompareTo(100), new AlternatingCompareTo(101));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(CoreMatchers.containsString("the first time!"));
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .repeatDeterminism(3)
+                    .verify();
+        }
+    }
+
+    public static class Checks {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_split_pair_space_into_blocks() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(
+                            new Correct(0), new Correct(1), new Correct(2), new Correct(3), new Correct(4)
+                    );
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            // when:
+            final List<VerificationCheck> checks = ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .checks(2);
+
+            // then:
+            int transitivityBlocks = 0;
+            for (final VerificationCheck check : checks) {
+                if ("transitivity".equals(check.rule()))
+                    transitivityBlocks++;
+                check.run();
+            }
+            assertEquals(3, transitivityBlocks);
+            assertEquals("transitivity rows 4-4", checks.get(checks.size() - 1).name());
+        }
+
+        @Test
+        public void should_fail_only_the_check_of_violated_rule() {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.<Correct, Correct>from(
+                            new InconsistentWithEquals(42, 0),
+                            new InconsistentWithEquals(42, 1)
+                    );
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            final List<VerificationCheck> checks = ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .checks();
+            for (final VerificationCheck check : checks.subList(1, checks.size())) {
+                check.run();
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("CompareTo is not consistent with equals!");
+
+            // when:
+            assertEquals("consistentWithEquals", checks.get(0).rule());
+            checks.get(0).run();
+        }
+
+        @Test
+        public void should_throw_exception_when_block_is_empty() {
+            // given:
+            final VerificationInstancesCreator<Correct> instances =
+                    VerificationInstancesCreators.from(new Correct(0));
+
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Number of rows in a block has to be positive!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(instances, instances, instances)
+                    .checks(0);
+        }
+    }
+
+    public static class ListenerAndCancellation {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final VerificationInstancesCreator<Correct> lesser =
+                VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+        private final VerificationInstancesCreator<Correct> equal =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private final VerificationInstancesCreator<Correct> greater =
+                VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+        @Test
+        public void should_notify_listener_about_every_check() {
+            // given:
+            final List<String> events = new ArrayList<String>();
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void checkStarted(final VerificationCheck check) {
+                    events.add("started " + check.name());
+                }
+
+                @Override
+                public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+                    events.add("finished " + check.name());
+                }
+            };
+            final ComparableVerifier<Correct> verifier = ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener);
+
+            // when:
+            verifier.verify();
+
+            // then:
+            final List<VerificationCheck> checks = verifier.checks(Integer.MAX_VALUE);
+            assertEquals(2 * checks.size(), events.size());
+            assertEquals("started " + checks.get(0).name(), events.get(0));
+            assertEquals("finished " + checks.get(checks.size() - 1).name(), events.get(events.size() - 1));
+        }
+
+        @Test
+        public void should_notify_listener_about_failed_check() {
+            // given:
+            final List<Throwable> failures = new ArrayList<Throwable>();
+            final VerificationInstancesCreator<Correct> wrongGreater =
+                    VerificationInstancesCreators.from(new Correct(-1));
+
+            expectedException.expect(AssertionError.class);
+
+            // when:
+            try {
+                ComparableVerifier
+                        .forInstances(lesser, equal, wrongGreater)
+                        .listener(new VerificationListener() {
+                            @Override
+                            public void checkFailed(final VerificationCheck check, final Throwable failure) {
+                                failures.add(failure);
+                            }
+                        })
+                        .verify();
+            } finally {
+                // then:
+                assertEquals(1, failures.size());
+            }
+        }
+
+        @Test
+        public void should_stop_when_cancelled() {
+            // given:
+            final CancellationToken cancellation = new CancellationToken();
+            final VerificationListener cancelling = new VerificationListener() {
+                @Override
+                public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+                    cancellation.cancel();
+                }
+            };
+
+            expectedException.expect(CancellationException.class);
+            expectedException.expectMessage("Verification was cancelled!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(cancelling)
+                    .cancellation(cancellation)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_creations_and_slow_comparisons() {
+            // given:
+            final List<String> creations = new ArrayList<String>();
+            final AtomicLong slowComparisons = new AtomicLong();
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void instancesCreated(final String type, final int instances, final long elapsedNanos) {
+                    creations.add(type + " " + instances);
+                }
+
+                @Override
+                public long slowComparisonThresholdNanos() {
+                    return 0;
+                }
+
+                @Override
+                public void slowComparison(final VerificationCheck check,
+                                           final Object first,
+                                           final Object second,
+                                           final long elapsedNanos) {
+                    slowComparisons.incrementAndGet();
+                }
+            };
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .verify();
+
+            // then:
+            assertEquals(Arrays.asList("lesser 2", "equal 2", "greater 2"), creations);
+            assertTrue(slowComparisons.get() > 0);
+        }
+
+        @Test
+        public void should_estimate_remaining_time_from_completed_rows() {
+            // given:
+            final VerificationProgress progress =
+                    new VerificationProgress(null, 1, 4, 100, 2000000000L);
+
+            // expect:
+            assertEquals(0.25, progress.fraction(), 0.0);
+            assertEquals(50.0, progress.comparisonsPerSecond(), 0.0);
+            assertEquals(6000000000L, progress.etaNanos());
+        }
+    }
+
+    public static class RegisterMetrics {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final VerificationInstancesCreator<Correct> lesser =
+                VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+        private final VerificationInstancesCreator<Correct> equal =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private final VerificationInstancesCreator<Correct> greater =
+                VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+        @Test
+        public void should_expose_metrics_while_verifying() throws Exception {
+            // given:
+            final ObjectName name = new ObjectName("org.artrev.compareverifier:type=VerificationMetrics,name=test");
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final List<Object> currentChecks = new ArrayList<Object>();
+            final AtomicLong comparisons = new AtomicLong();
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void checkStarted(final VerificationCheck check) {
+                    try {
+                        currentChecks.add(server.getAttribute(name, "CurrentCheck"));
+                        comparisons.set((Long) server.getAttribute(name, "ComparisonsDone"));
+                    } catch (final JMException exc) {
+                        throw new IllegalStateException(exc);
+                    }
+                }
+            };
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .registerMetrics(name)
+                    .verify();
+
+            // then:
+            assertEquals("consistent with equals", currentChecks.get(0));
+            assertTrue(comparisons.get() > 0);
+            assertFalse(server.isRegistered(name));
+        }
+
+        @Test
+        public void should_estimate_comparisons_of_checks_not_started_yet() throws Exception {
+            // given:
+            final ObjectName name = new ObjectName("org.artrev.compareverifier:type=VerificationMetrics,name=remaining");
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final AtomicLong remaining = new AtomicLong(-1);
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void checkStarted(final VerificationCheck check) {
+                    try {
+                        remaining.compareAndSet(-1, (Long) server.getAttribute(name, "ComparisonsRemaining"));
+                    } catch (final JMException exc) {
+                        throw new IllegalStateException(exc);
+                    }
+                }
+            };
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .registerMetrics(name)
+                    .verify();
+
+            // then:
+            // at least the reverse checks of all the pairs are still to come
+            assertTrue(remaining.get() >= 2L * 6 * 6 - 2L * 2 * 2);
+        }
+
+        @Test
+        public void should_report_violation_when_metrics_cannot_be_unregistered() throws Exception {
+            // given:
+            final ObjectName name = new ObjectName("org.artrev.compareverifier:type=VerificationMetrics,name=failing");
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void checkStarted(final VerificationCheck check) {
+                    try {
+                        if (server.isRegistered(name))
+                            server.unregisterMBean(name);
+                    } catch (final JMException exc) {
+                        throw new IllegalStateException(exc);
+                    }
+                }
+            };
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("are not transitive!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(0)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(42)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Correct(1))
+                    )
+                    .listener(listener)
+                    .registerMetrics(name)
+                    .verify();
+        }
+
+        @Test
+        public void should_throw_exception_when_name_is_taken() throws Exception {
+            // given:
+            final ObjectName name = new ObjectName("java.lang:type=Runtime");
+
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("Verification metrics could not be registered as java.lang:type=Runtime!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .registerMetrics(name)
+                    .verify();
+        }
+    }
+
+    public static class Strategy {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final VerificationInstancesCreator<Correct> lesser = range(0, 10);
+        private final VerificationInstancesCreator<Correct> equal =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private final VerificationInstancesCreator<Correct> greater = range(100, 10);
+
+        private static VerificationInstancesCreator<Correct> range(final int from, final int size) {
+            final List<Correct> instances = new ArrayList<Correct>();
+            for (int value = from; value < from + size; value++) {
+                instances.add(new Correct(value));
+            }
+            return VerificationInstancesCreators.from(instances.toArray(new Correct[instances.size()]));
+        }
+
+        private static final class StrategyListener extends VerificationListener {
+            final List<VerificationStrategy> strategies = new ArrayList<VerificationStrategy>();
+            final List<String> reasons = new ArrayList<String>();
+            final List<String> checks = Collections.synchronizedList(new ArrayList<String>());
+            final AtomicLong transitivityComparisons = new AtomicLong();
+
+            @Override
+            public void strategyChosen(final VerificationStrategy strategy, final String reason) {
+                strategies.add(strategy);
+                reasons.add(reason);
+            }
+
+            @Override
+            public void checkStarted(final VerificationCheck check) {
+                checks.add(check.name());
+            }
+
+            @Override
+            public long slowComparisonThresholdNanos() {
+                return 0;
+            }
+
+            @Override
+            public void slowComparison(final VerificationCheck check,
+                                       final Object first,
+                                       final Object second,
+                                       final long elapsedNanos) {
+                if ("transitivity".equals(check.rule()))
+                    transitivityComparisons.incrementAndGet();
+            }
+        }
+
+        @Test
+        public void should_verify_exhaustively_by_default() {
+            // given:
+            final StrategyListener listener = new StrategyListener();
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .verify();
+
+            // then:
+            assertEquals(Collections.singletonList(VerificationStrategy.EXHAUSTIVE), listener.strategies);
+            assertEquals(3 * 10 * 2 * 10, listener.transitivityComparisons.get());
+        }
+
+        @Test
+        public void should_pick_exhaustive_strategy_when_it_fits_the_budget() {
+            // given:
+            final StrategyListener listener = new StrategyListener();
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .auto(1, TimeUnit.HOURS)
+                    .verify();
+
+            // then:
+            assertEquals(Collections.singletonList(VerificationStrategy.EXHAUSTIVE), listener.strategies);
+        }
+
+        @Test
+        public void should_pick_sort_based_strategy_when_nothing_else_fits_the_budget() {
+            // given:
+            final StrategyListener listener = new StrategyListener();
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .auto(1, TimeUnit.NANOSECONDS)
+                    .verify();
+
+            // then:
+            assertEquals(Collections.singletonList(VerificationStrategy.SORT_BASED), listener.strategies);
+            assertTrue(listener.reasons.get(0).endsWith("which is not exhaustive"));
+            assertTrue(listener.checks.contains("sorted order"));
+            assertFalse(listener.checks.contains("transitivity"));
+        }
+
+        @Test
+        public void should_verify_sample_of_instances() {
+            // given:
+            final StrategyListener listener = new StrategyListener();
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .sample(0.5)
+                    .verify();
+
+            // then:
+            assertEquals(Collections.singletonList(VerificationStrategy.SAMPLED), listener.strategies);
+            assertEquals(3 * 5 * 2 * 5, listener.transitivityComparisons.get());
+        }
+
+        @Test
+        public void should_verify_blocks_in_parallel() {
+            // given:
+            final StrategyListener listener = new StrategyListener();
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .listener(listener)
+                    .strategy(VerificationStrategy.PARALLEL)
+                    .verify();
+
+            // then:
+            int transitivityBlocks = 0;
+            for (final String check : listener.checks) {
+                if (check.startsWith("transitivity rows"))
+                    transitivityBlocks++;
+            }
+            assertTrue(transitivityBlocks > 1);
+            assertEquals(3 * 10 * 2 * 10, listener.transitivityComparisons.get());
+        }
+
+        @Test
+        public void should_detect_violation_in_parallel() {
+            // given:
+            final VerificationInstancesCreator<Correct> wrongGreater = range(-10, 10);
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("are not transitive!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, wrongGreater)
+                    .strategy(VerificationStrategy.PARALLEL)
+                    .verify();
+        }
+
+        @Test
+        public void should_detect_wrong_order_of_groups_after_sorting() {
+            // given:
+            final VerificationInstancesCreator<Correct> wrongGreater =
+                    VerificationInstancesCreators.from(new Correct(-1));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(
+                    "Instance Correct{ value = -1 } of the greater instances sorts before Correct{ value = 0 } of the lesser instances!"
+            );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, wrongGreater)
+                    .strategy(VerificationStrategy.SORT_BASED)
+                    .verify();
+        }
+
+        @Test
+        public void should_name_instances_when_sorting_detects_a_violation() {
+            // given:
+            final Correct[] tournament = new Correct[81];
+            for (int index = 0; index < tournament.length; index++) {
+                tournament[index] = new Tournament(index + 1);
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage(
+                    "Sorting the instances detected a violation of the general contract of compareTo when comparing"
+                            + " Tournament{ value = 71 } to Tournament{ value = 35 }!"
+            );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct, Correct>from(tournament),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(5000)),
+                            VerificationInstancesCreators.<Correct, Correct>from(new Tournament(6000))
+                    )
+                    .strategy(VerificationStrategy.SORT_BASED)
+                    .verify();
+        }
+
+        @Test
+        public void should_detect_equal_instances_of_different_groups_after_sorting() {
+            // given:
+            final VerificationInstancesCreator<Correct> wrongLesser =
+                    VerificationInstancesCreators.from(new Correct(0), new Correct(42));
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("of the lesser instances is equal to");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(wrongLesser, equal, greater)
+                    .suppressConsistentWithEquals(true)
+                    .strategy(VerificationStrategy.SORT_BASED)
+                    .verify();
+        }
+
+        @Test
+        public void should_throw_exception_when_sampled_strategy_has_no_fraction() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Sampled strategy requires the size of the sample, use sample(double)!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .strategy(VerificationStrategy.SAMPLED);
+        }
+
+        @Test
+        public void should_throw_exception_when_sampled_fraction_is_out_of_range() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Sampled fraction has to be greater than 0 and at most 1!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .sample(0);
+        }
+
+        @Test
+        public void should_throw_exception_when_time_budget_is_not_positive() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Time budget has to be positive!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .auto(0, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class CreateConcurrently {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final VerificationInstancesCreator<Correct> lesser =
+                VerificationInstancesCreators.from(new Correct(0), new Correct(1));
+        private final VerificationInstancesCreator<Correct> equal =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private final VerificationInstancesCreator<Correct> greater =
+                VerificationInstancesCreators.from(new Correct(100), new Correct(101));
+
+        // waits until released, so the other groups are created first
+        private static VerificationInstancesCreator<Correct> awaiting(final CountDownLatch released,
+                                                                      final VerificationInstancesCreator<Correct> creator) {
+            return new VerificationInstancesCreator<Correct>() {
+                @Override
+                public List<Correct> create() {
+                    try {
+                        released.await(10, TimeUnit.SECONDS);
+                    } catch (final InterruptedException exc) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return creator.create();
+                }
+            };
+        }
+
+        private static AsyncVerificationInstancesCreator<Correct> async(final ExecutorService executor,
+                                                                        final VerificationInstancesCreator<Correct> creator) {
+            return new AsyncVerificationInstancesCreator<Correct>() {
+                @Override
+                public Future<List<Correct>> create() {
+                    return executor.submit(new Callable<List<Correct>>() {
+                        @Override
+                        public List<Correct> call() {
+                            return creator.create();
+                        }
+                    });
+                }
+            };
+        }
+
+        @Test
+        public void should_check_created_group_while_other_groups_are_created() {
+            // given:
+            final CountDownLatch released = new CountDownLatch(1);
+            final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+            final VerificationListener listener = new VerificationListener() {
+                @Override
+                public void instancesCreated(final String type, final int instances, final long elapsedNanos) {
+                    events.add("created " + type);
+                }
+
+                @Override
+                public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+                    events.add("finished " + check.name());
+                    if ("compareTo null (equal)".equals(check.name()))
+                        released.countDown();
+                }
+            };
+
+            // when:
+            ComparableVerifier
+                    .forInstances(awaiting(released, lesser), equal, greater)
+                    .createConcurrently(true)
+                    .listener(listener)
+                    .verify();
+
+            // then:
+            assertTrue(events.indexOf("finished compareTo null (equal)") < events.indexOf("created lesser"));
+            assertTrue(events.indexOf("created lesser") < events.indexOf("finished equals null (lesser)"));
+            assertTrue(events.contains("finished transitivity"));
+        }
+
+        @Test
+        public void should_report_violation_before_other_groups_are_created() {
+            // given:
+            final CountDownLatch released = new CountDownLatch(1);
+            final VerificationInstancesCreator<Correct> equalToNull =
+                    VerificationInstancesCreators.<Correct, EqualToNull>from(
+                            new EqualToNull(42),
+                            new EqualToNull(42)
+                    );
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Instance is equal to null!");
+
+            // when:
+            try {
+                ComparableVerifier
+                        .forInstances(awaiting(released, lesser), equalToNull, awaiting(released, greater))
+                        .createConcurrently(true)
+                        .verify();
+            } finally {
+                // then:
+                assertEquals(1, released.getCount());
+            }
+        }
+
+        @Test
+        public void should_verify_asynchronously_created_instances() {
+            // given:
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            final List<VerificationCheck> checks = new ArrayList<VerificationCheck>();
+
+            // when:
+            try {
+                ComparableVerifier
+                        .forAsyncInstances(async(executor, lesser), async(executor, equal), async(executor, greater))
+                        .listener(new VerificationListener() {
+                            @Override
+                            public void checkFinished(final VerificationCheck check, final long elapsedNanos) {
+                                checks.add(check);
+                            }
+                        })
+                        .verify();
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // then:
+            assertEquals(ComparableVerifier.forInstances(lesser, equal, greater).checks(Integer.MAX_VALUE).size(),
+                    checks.size());
+        }
+
+        @Test
+        public void should_rethrow_failure_of_asynchronous_creator() {
+            // given:
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("VerificationInstancesCreator (greater) cannot return empty list of instances!");
+
+            // when:
+            try {
+                ComparableVerifier
+                        .forAsyncInstances(async(executor, lesser), async(executor, equal),
+                                async(executor, VerificationInstancesCreators.<Correct>emptyInstances()))
+                        .verify();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    public static class Shrinking {
+        // moves the value towards zero, the closest candidates first
+        private static final Shrinker<Correct> TOWARDS_ZERO =
+                new Shrinker<Correct>() {
+                    @Override
+                    public List<Correct> shrink(final Correct instance) {
+                        final List<Correct> candidates = new ArrayList<Correct>();
+                        if (0 != instance.value)
+                            candidates.add(new Correct(0));
+                        if (Math.abs(instance.value) > 1)
+                            candidates.add(new Correct(instance.value / 2));
+                        if (Math.abs(instance.value) > 2)
+                            candidates.add(new Correct(instance.value - Integer.signum(instance.value)));
+                        return candidates;
+                    }
+                };
+
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final VerificationInstancesCreator<Correct> lesser =
+                VerificationInstancesCreators.from(new Correct(-7), new Correct(3), new Correct(9000));
+        private final VerificationInstancesCreator<Correct> equal =
+                VerificationInstancesCreators.from(new Correct(42), new Correct(42));
+        private final VerificationInstancesCreator<Correct> greater =
+                VerificationInstancesCreators.from(new Correct(100), new Correct(7000));
+
+        @Test
+        public void should_throw_if_shrinker_is_null() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Shrinker cannot be null!");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .shrinkWith(null);
+        }
+
+        @Test
+        public void should_report_shrunk_counterexample() {
+            // given:
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Instances Correct{ value = 1 }, Correct{ value = 0 }, Correct{ value = 2 }, are not transitive! (shrunk in 47 steps from: Instances Correct{ value = 9000 }, Correct{ value = 42 }, Correct{ value = 100 }, are not transitive!)");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .shrinkWith(TOWARDS_ZERO)
+                    .verify();
+        }
+
+        @Test
+        public void should_report_original_counterexample_if_it_cannot_be_shrunk() {
+            // given:
+            final Shrinker<Correct> nothing = new Shrinker<Correct>() {
+                @Override
+                public List<Correct> shrink(final Correct instance) {
+                    return Collections.emptyList();
+                }
+            };
+
+            // when:
+            String message = null;
+            try {
+                ComparableVerifier
+                        .forInstances(
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(0)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(42)),
+                                VerificationInstancesCreators.<Correct, Correct>from(new Correct(1))
+                        )
+                        .shrinkWith(nothing)
+                        .verify();
+            } catch (final AssertionError error) {
+                message = error.getMessage();
+            }
+
+            // then:
+            assertEquals("Instances Correct{ value = 0 }, Correct{ value = 42 }, Correct{ value = 1 }, are not transitive!", message);
+        }
+
+        @Test
+        public void should_shrink_every_instance_only_once() {
+            // given:
+            final List<Correct> shrunk = Collections.synchronizedList(new ArrayList<Correct>());
+            final Shrinker<Correct> recording = new Shrinker<Correct>() {
+                @Override
+                public List<Correct> shrink(final Correct instance) {
+                    for (final Correct previous : shrunk) {
+                        assertFalse(previous == instance);
+                    }
+                    shrunk.add(instance);
+                    return TOWARDS_ZERO.shrink(instance);
+                }
+            };
+
+            // when:
+            boolean failed = false;
+            try {
+                ComparableVerifier
+                        .forInstances(lesser, equal, greater)
+                        .shrinkWith(recording)
+                        .verify();
+            } catch (final AssertionError error) {
+                failed = true;
+            }
+
+            // then:
+            assertTrue(failed);
+            assertFalse(shrunk.isEmpty());
+        }
+
+        @Test
+        public void should_record_shrunk_counterexample() {
+            // given:
+            final File corpus = new File(temporaryFolder.getRoot(), "replay.bin");
+            try {
+                ComparableVerifier
+                        .forInstances(lesser, equal, greater)
+                        .replayCorpus(corpus, ReplayCounterexamples.ENCODER, ReplayCounterexamples.DECODER)
+                        .shrinkWith(TOWARDS_ZERO)
+                        .verify();
+            } catch (final AssertionError ignored) {
+                // the shrunk counterexample is now recorded
+            }
+
+            expectedException.expect(AssertionError.class);
+            expectedException.expectMessage("Instances Correct{ value = 1 }, Correct{ value = 0 }, Correct{ value = 2 }, are not transitive! (replayed from");
+
+            // when:
+            ComparableVerifier
+                    .forInstances(
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances(),
+                            VerificationInstancesCreators.<Correct>nullInstances()
+                    )
+                    .replayCorpus(corpus, ReplayCounterexamples.ENCODER, ReplayCounterexamples.DECODER)
+                    .verify();
+        }
+    }
+}
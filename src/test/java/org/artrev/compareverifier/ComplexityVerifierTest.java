@@ -0,0 +1,74 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import org.artrev.compareverifier.implementations.Sequence;
+import org.hamcrest.CoreMatchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ComplexityVerifierTest {
+    private static final SizedInstancesCreator<Sequence> EQUAL_SEQUENCES =
+            new SizedInstancesCreator<Sequence>() {
+                @Override
+                public List<Sequence> create(final int size) {
+                    return Arrays.asList(Sequence.ofLength(size, 7), Sequence.ofLength(size, 7));
+                }
+            };
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void should_pass_for_growth_within_the_bound() {
+        // when:
+        ComplexityVerifier
+                .forCreator(EQUAL_SEQUENCES)
+                .sizes(64, 8192)
+                .bound(Complexity.QUADRATIC)
+                .verify();
+    }
+
+    @Test
+    public void should_fail_for_growth_exceeding_the_bound() {
+        // given:
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(CoreMatchers.containsString("which exceeds the O(1) bound!"));
+
+        // when:
+        ComplexityVerifier
+                .forCreator(EQUAL_SEQUENCES)
+                .sizes(64, 8192)
+                .bound(Complexity.CONSTANT)
+                .verify();
+    }
+
+    @Test
+    public void should_throw_If_range_of_sizes_is_too_narrow() {
+        // given:
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Largest size has to be at least four times the smallest size!");
+
+        // when:
+        ComplexityVerifier
+                .forCreator(EQUAL_SEQUENCES)
+                .sizes(64, 128);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ForkedVerificationRunnerTest {
+    private static final String MONEY = "org.artrev.compareverifier.discovery.valid.Money";
+    private static final String VERSION_FIXTURES = "org.artrev.compareverifier.discovery.valid.VersionFixtures";
+    private static final String REVERSED = "org.artrev.compareverifier.discovery.broken.Reversed";
+    private static final String FORGED_RESULT = ForgedResult.class.getName();
+
+    // prints a result line the runner cannot read and stops the fork before the real result
+    public static final class ForgedResult {
+        public static ComparableVerifier<Integer> verifier() {
+            System.out.println("##compareverifier-result failed \"unterminated");
+            System.out.flush();
+            Runtime.getRuntime().halt(0);
+            return null;
+        }
+    }
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void should_report_result_of_every_provider() throws Exception {
+        // given:
+        final StringWriter report = new StringWriter();
+
+        // when:
+        final int notPassed = ForkedVerificationRunner
+                .forProviders(MONEY, VERSION_FIXTURES, REVERSED, "org.artrev.compareverifier.Missing")
+                .forks(2)
+                .jvmArgument("-Xmx64m")
+                .run(report);
+
+        // then:
+        assertEquals(2, notPassed);
+        final String json = report.toString();
+        assertThat(json, CoreMatchers.containsString(
+                "{\"provider\": \"" + MONEY + "\", \"status\": \"passed\", \"elapsedMillis\": "));
+        assertThat(json, CoreMatchers.containsString(
+                "{\"provider\": \"" + VERSION_FIXTURES + "\", \"status\": \"passed\", \"elapsedMillis\": "));
+        assertThat(json, CoreMatchers.containsString(
+                "{\"provider\": \"" + REVERSED + "\", \"status\": \"failed\", \"elapsedMillis\": "));
+        assertThat(json, CoreMatchers.containsString(
+                "\"message\": \"java.lang.IllegalStateException: Fixture provider org.artrev.compareverifier.Missing not found!\""));
+        assertThat(json, CoreMatchers.containsString("\"passed\": 2,"));
+        assertThat(json, CoreMatchers.containsString("\"failed\": 1,"));
+        assertThat(json, CoreMatchers.containsString("\"errors\": 1,"));
+    }
+
+    @Test
+    public void should_report_error_when_fork_cannot_be_started() throws Exception {
+        // given:
+        final StringWriter report = new StringWriter();
+
+        // when:
+        final int notPassed = ForkedVerificationRunner
+                .forProviders(MONEY, "org.artrev.compareverifier.\u0000Missing")
+                .run(report);
+
+        // then:
+        assertEquals(1, notPassed);
+        final String json = report.toString();
+        assertThat(json, CoreMatchers.containsString(
+                "{\"provider\": \"" + MONEY + "\", \"status\": \"passed\", \"elapsedMillis\": "));
+        assertThat(json, CoreMatchers.containsString("\"message\": \"Forked JVM could not be run: java.io.IOException"));
+        assertThat(json, CoreMatchers.containsString("\"errors\": 1,"));
+    }
+
+    @Test
+    public void should_report_error_when_result_is_malformed() throws Exception {
+        // given:
+        final StringWriter report = new StringWriter();
+
+        // when:
+        final int notPassed = ForkedVerificationRunner
+                .forProviders(FORGED_RESULT)
+                .run(report);
+
+        // then:
+        assertEquals(1, notPassed);
+        final String json = report.toString();
+        assertThat(json, CoreMatchers.containsString(
+                "{\"provider\": \"" + FORGED_RESULT + "\", \"status\": \"error\", \"elapsedMillis\": "));
+        assertThat(json, CoreMatchers.containsString(
+                "\"message\": \"Forked JVM reported a malformed result failed \\\"unterminated!\""));
+    }
+
+    @Test
+    public void should_accept_only_json_string_literals_as_messages() {
+        // expect:
+        assertTrue(ForkedVerificationRunner.isJson(ForkedVerificationRunner.json("a\"b\\c\nd\u00e9")));
+        assertFalse(ForkedVerificationRunner.isJson("\"unterminated"));
+        assertFalse(ForkedVerificationRunner.isJson("\"a\"b\""));
+        assertFalse(ForkedVerificationRunner.isJson("\"a\\\""));
+        assertFalse(ForkedVerificationRunner.isJson("\"\\u00g9\""));
+        assertFalse(ForkedVerificationRunner.isJson("{\"a\": 1}"));
+    }
+
+    @Test
+    public void should_escape_messages_in_report() {
+        // expect:
+        assertEquals("\"a\\\"b\\\\c\\nd\\u00e9\"", ForkedVerificationRunner.json("a\"b\\c\nd\u00e9"));
+    }
+
+    @Test
+    public void should_reject_unknown_command_line_option() {
+        // given:
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        // when:
+        final int exitCode = ForkedVerificationRunner.run(
+                new String[]{"--fork", "2", MONEY}, new PrintStream(new ByteArrayOutputStream()), new PrintStream(err)
+        );
+
+        // then:
+        assertEquals(2, exitCode);
+        assertTrue(err.toString().startsWith("Unknown option --fork!"));
+    }
+
+    @Test
+    public void should_throw_exception_when_forks_are_not_positive() {
+        // given:
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Number of forks has to be positive!");
+
+        // when:
+        ForkedVerificationRunner.forProviders(MONEY).forks(0);
+    }
+}
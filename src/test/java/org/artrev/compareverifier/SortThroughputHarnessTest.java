@@ -0,0 +1,118 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import org.artrev.compareverifier.implementations.Correct;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SortThroughputHarnessTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static SortThroughputHarness<Correct> harness() {
+        return SortThroughputHarness
+                .forInstances(
+                        VerificationInstancesCreators.<Correct, Correct>from(new Correct(0), new Correct(1)),
+                        VerificationInstancesCreators.<Correct, Correct>from(new Correct(42), new Correct(42)),
+                        VerificationInstancesCreators.<Correct, Correct>from(new Correct(100), new Correct(101))
+                )
+                .sizes(100, 1000)
+                .warmupIterations(2)
+                .measurementIterations(3);
+    }
+
+    @Test
+    public void should_measure_every_benchmark_for_every_size() {
+        // when:
+        final Map<String, Double> results = harness().run();
+
+        // then:
+        assertEquals(6, results.size());
+        for (final Double throughput : results.values()) {
+            assertTrue(throughput > 0);
+        }
+    }
+
+    @Test
+    public void should_create_missing_baseline() {
+        // given:
+        final File baseline = new File(temporaryFolder.getRoot(), "baseline.properties");
+
+        // when:
+        harness().baseline(baseline).run();
+
+        // then:
+        assertTrue(baseline.exists());
+    }
+
+    @Test
+    public void should_fill_sizes_with_generated_instances() {
+        // given:
+        final AtomicInteger generated = new AtomicInteger();
+        final InstanceGenerator<Correct> generator = new InstanceGenerator<Correct>() {
+            @Override
+            public Correct generate(final Random random) {
+                generated.incrementAndGet();
+                return new Correct(random.nextInt(1000000));
+            }
+        };
+
+        // when:
+        harness().generator(generator).run();
+
+        // then:
+        assertEquals((100 - 6) + (1000 - 6), generated.get());
+    }
+
+    @Test
+    public void should_fail_on_regression_compared_to_baseline() throws IOException {
+        // given:
+        final File baseline = temporaryFolder.newFile("baseline.properties");
+        final Properties properties = new Properties();
+        properties.setProperty("arraysSort.100", String.valueOf(Double.MAX_VALUE));
+        final OutputStream output = new FileOutputStream(baseline);
+        try {
+            properties.store(output, null);
+        } finally {
+            output.close();
+        }
+
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("arraysSort.100");
+        expectedException.expectMessage("measured on 6 created instances repeated!");
+
+        // when:
+        harness().baseline(baseline).run();
+    }
+}
@@ -0,0 +1,504 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier;
+
+import org.artrev.compareverifier.implementations.BranchRecording;
+import org.artrev.compareverifier.implementations.Correct;
+import org.artrev.compareverifier.implementations.JacocoInstrumented;
+import org.artrev.compareverifier.implementations.SemanticVersion;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Enclosed.class)
+public class VerificationInstancesCreatorsTest {
+    static final InstanceDecoder<Correct> CORRECT_DECODER =
+            new InstanceDecoder<Correct>() {
+                @Override
+                public Correct decode(final ByteBuffer bytes) {
+                    return new Correct(bytes.getInt());
+                }
+            };
+
+    static File writeCorpus(final File file, final int... values) throws IOException {
+        final DataOutputStream output = new DataOutputStream(new FileOutputStream(file));
+        try {
+            for (final int value : values) {
+                output.writeInt(4);
+                output.writeInt(value);
+            }
+        } finally {
+            output.close();
+        }
+        return file;
+    }
+
+    public static class FromCorpus {
+        @Rule
+        public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        @Test
+        public void should_read_all_instances_from_the_corpus() throws IOException {
+            // given:
+            final File corpus = writeCorpus(temporaryFolder.newFile(), 3, 1, 4);
+
+            // when:
+            final List<Correct> instances =
+                    VerificationInstancesCreators.fromCorpus(corpus, CORRECT_DECODER).create();
+
+            // then:
+            assertEquals(3, instances.size());
+            assertEquals(new Correct(3), instances.get(0));
+            assertEquals(new Correct(1), instances.get(1));
+            assertEquals(new Correct(4), instances.get(2));
+        }
+
+        @Test
+        public void should_decode_only_accessed_instances() throws IOException {
+            // given:
+            final File corpus = writeCorpus(temporaryFolder.newFile(), 0, 1, 2, 3, 4);
+            final AtomicInteger decoded = new AtomicInteger();
+            final InstanceDecoder<Correct> decoder = new InstanceDecoder<Correct>() {
+                @Override
+                public Correct decode(final ByteBuffer bytes) {
+                    decoded.incrementAndGet();
+                    return CORRECT_DECODER.decode(bytes);
+                }
+            };
+
+            // when:
+            final List<Correct> instances =
+                    VerificationInstancesCreators.fromCorpus(corpus, decoder).create();
+            instances.get(3);
+            instances.get(3);
+
+            // then:
+            assertEquals(1, decoded.get());
+        }
+
+        @Test
+        public void should_throw_If_corpus_is_truncated() throws IOException {
+            // given:
+            final File corpus = temporaryFolder.newFile();
+            final DataOutputStream output = new DataOutputStream(new FileOutputStream(corpus));
+            output.writeInt(8);
+            output.writeInt(42);
+            output.close();
+
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("has an invalid entry length 8 at offset 0!");
+
+            // when:
+            VerificationInstancesCreators.fromCorpus(corpus, CORRECT_DECODER).create();
+        }
+
+        @Test
+        public void should_verify_instances_read_from_corpus() throws IOException {
+            // given:
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.fromCorpus(
+                            writeCorpus(temporaryFolder.newFile(), 0, 1, 2), CORRECT_DECODER
+                    );
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.fromCorpus(
+                            writeCorpus(temporaryFolder.newFile(), 42, 42), CORRECT_DECODER
+                    );
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.fromCorpus(
+                            writeCorpus(temporaryFolder.newFile(), 100, 101), CORRECT_DECODER
+                    );
+
+            // when:
+            ComparableVerifier
+                    .forInstances(lesser, equal, greater)
+                    .verify();
+        }
+    }
+
+    public static class Cached {
+        private static VerificationInstancesCreator<Correct> counting(final AtomicInteger calls,
+                                                                      final int... values) {
+            return new VerificationInstancesCreator<Correct>() {
+                @Override
+                public List<Correct> create() {
+                    calls.incrementAndGet();
+                    final List<Correct> instances = new ArrayList<Correct>();
+                    for (final int value : values) {
+                        instances.add(new Correct(value));
+                    }
+                    return instances;
+                }
+            };
+        }
+
+        @Test
+        public void should_invoke_creator_only_once_across_verifications() {
+            // given:
+            final AtomicInteger calls = new AtomicInteger();
+            final VerificationInstancesCreator<Correct> lesser =
+                    VerificationInstancesCreators.from(new Correct(0));
+            final VerificationInstancesCreator<Correct> equal =
+                    VerificationInstancesCreators.cached(counting(calls, 42, 42));
+            final VerificationInstancesCreator<Correct> greater =
+                    VerificationInstancesCreators.from(new Correct(100));
+
+            // when:
+            ComparableVerifier.forInstances(lesser, equal, greater).verify();
+            ComparableVerifier.forInstances(lesser, equal, greater).verify();
+
+            // then:
+            assertEquals(1, calls.get());
+        }
+
+        @Test
+        public void should_invoke_creator_only_once_from_many_threads() throws InterruptedException {
+            // given:
+            final AtomicInteger calls = new AtomicInteger();
+            final VerificationInstancesCreator<Correct> cached =
+                    VerificationInstancesCreators.cached(counting(calls, 1, 2, 3));
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<Thread>();
+            for (int i = 0; i < 8; i++) {
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (final InterruptedException exc) {
+                            Thread.currentThread().interrupt();
+                        }
+                        cached.create();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            // when:
+            start.countDown();
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            // then:
+            assertEquals(1, calls.get());
+        }
+
+        @Test
+        public void should_evict_least_recently_used_instances_above_the_limit() {
+            // given:
+            final InstancesCache cache = new InstancesCache(4);
+            final AtomicInteger firstCalls = new AtomicInteger();
+            final AtomicInteger secondCalls = new AtomicInteger();
+            final VerificationInstancesCreator<Correct> first = counting(firstCalls, 1, 2, 3);
+            final VerificationInstancesCreator<Correct> second = counting(secondCalls, 4, 5, 6);
+
+            // when:
+            final List<Correct> instances = cache.get(first);
+            cache.get(second);
+            cache.get(second);
+            cache.get(first);
+
+            // then:
+            assertEquals(Arrays.asList(new Correct(1), new Correct(2), new Correct(3)), instances);
+            assertEquals(2, firstCalls.get());
+            assertEquals(1, secondCalls.get());
+        }
+
+        @Test
+        public void should_not_keep_collected_creators() throws InterruptedException {
+            // given:
+            final InstancesCache cache = new InstancesCache(4);
+            cache.get(counting(new AtomicInteger(), 1, 2));
+
+            // when:
+            for (int attempt = 0; attempt < 100 && cache.size() > 0; attempt++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            // then:
+            assertEquals(0, cache.size());
+        }
+
+        @Test
+        public void should_return_the_same_instances() {
+            // given:
+            final VerificationInstancesCreator<Correct> cached =
+                    VerificationInstancesCreators.cached(counting(new AtomicInteger(), 1, 2));
+
+            // when:
+            final List<Correct> first = cached.create();
+            final List<Correct> second = cached.create();
+
+            // then:
+            assertSame(first, second);
+        }
+    }
+
+    public static class ForValueClass {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private static ValueClassInstances<SemanticVersion> versions() {
+            return VerificationInstancesCreators
+                    .forValueClass(SemanticVersion.class)
+                    .component(int.class, 0, 1, 2, 10, Integer.MAX_VALUE)
+                    .component(int.class, Integer.MIN_VALUE, -1, 0, 1, 7);
+        }
+
+        @Test
+        public void should_split_all_combinations_around_the_median() {
+            // given:
+            final ValueClassInstances<SemanticVersion> versions = versions();
+
+            // when:
+            final List<SemanticVersion> lesser = versions.lesser().create();
+            final List<SemanticVersion> equal = versions.equal().create();
+            final List<SemanticVersion> greater = versions.greater().create();
+
+            // then:
+            assertEquals(12, lesser.size());
+            assertEquals(12, greater.size());
+            assertEquals(equal.get(0), equal.get(1));
+            assertNotSame(equal.get(0), equal.get(1));
+            assertEquals("SemanticVersion{ 2.0 }", equal.get(0).toString());
+        }
+
+        @Test
+        public void should_create_instances_passing_verification() {
+            // given:
+            final ValueClassInstances<SemanticVersion> versions = versions().poolSize(16);
+
+            // when:
+            ComparableVerifier
+                    .forInstances(versions.lesser(), versions.equal(), versions.greater())
+                    .verify();
+
+            // then:
+            assertEquals(8, versions.lesser().create().size());
+        }
+
+        @Test
+        public void should_fail_verification_for_wrong_component_order() {
+            // given:
+            final ValueClassInstances<SemanticVersion> versions = versions().compareComponents(1, 0);
+
+            expectedException.expect(AssertionError.class);
+
+            // when:
+            ComparableVerifier
+                    .forInstances(versions.lesser(), versions.equal(), versions.greater())
+                    .verify();
+        }
+
+        @Test
+        public void should_throw_exception_when_domain_repeats_a_value() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Component domain contains 1 more than once!");
+
+            // when:
+            VerificationInstancesCreators
+                    .forValueClass(SemanticVersion.class)
+                    .component(int.class, 0, 1, 1, 2);
+        }
+
+        @Test
+        public void should_throw_exception_when_domain_is_not_ascending() {
+            // given:
+            expectedException.expect(IllegalArgumentException.class);
+            expectedException.expectMessage("Component domain has to be in the ascending order, 10 is not lesser than 2!");
+
+            // when:
+            VerificationInstancesCreators
+                    .forValueClass(SemanticVersion.class)
+                    .component(int.class, 0, 1, 10, 2);
+        }
+
+        @Test
+        public void should_throw_exception_when_there_is_no_matching_constructor() {
+            // given:
+            final ValueClassInstances<SemanticVersion> versions = VerificationInstancesCreators
+                    .forValueClass(SemanticVersion.class)
+                    .component(long.class, 0L, 1L, 2L);
+
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("Type " + SemanticVersion.class.getName() + " has no constructor taking [long]!");
+
+            // when:
+            versions.lesser().create();
+        }
+    }
+
+    public static class CoverageGuided {
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private static final InstanceGenerator<BranchRecording> GENERATOR = new InstanceGenerator<BranchRecording>() {
+            @Override
+            public BranchRecording generate(final Random random) {
+                return new BranchRecording(random.nextInt(10), random.nextInt(10), random.nextInt(10));
+            }
+        };
+
+        private static final CoverageProbe RECORDED_BRANCHES = new CoverageProbe() {
+            private BitSet recorded;
+
+            @Override
+            public void start() {
+                recorded = BranchRecording.branches();
+                BranchRecording.resetBranches();
+            }
+
+            @Override
+            public void reset() {
+                BranchRecording.resetBranches();
+            }
+
+            @Override
+            public BitSet covered() {
+                return BranchRecording.branches();
+            }
+
+            @Override
+            public void stop() {
+                BranchRecording.recordBranches(recorded);
+            }
+        };
+
+        @Test
+        public void should_keep_only_instances_reaching_new_branches() {
+            // given:
+            final CoverageGuidedInstances<BranchRecording> instances =
+                    new CoverageGuidedInstances<BranchRecording>(BranchRecording.class, GENERATOR, RECORDED_BRANCHES);
+
+            // when:
+            final int kept = instances.lesser().create().size()
+                    + instances.equal().create().size() - 1
+                    + instances.greater().create().size();
+
+            // then:
+            assertTrue(kept <= 3 + 4);
+        }
+
+        @Test
+        public void should_keep_instances_reaching_branches_covered_before() {
+            // given:
+            new BranchRecording(1, 0, 0).compareTo(new BranchRecording(2, 0, 0));
+            new BranchRecording(1, 1, 0).compareTo(new BranchRecording(1, 2, 0));
+            new BranchRecording(1, 1, 1).compareTo(new BranchRecording(1, 1, 2));
+            new BranchRecording(1, 1, 1).compareTo(new BranchRecording(1, 1, 1));
+            final CoverageGuidedInstances<BranchRecording> instances =
+                    new CoverageGuidedInstances<BranchRecording>(BranchRecording.class, GENERATOR, RECORDED_BRANCHES);
+
+            // when:
+            final int kept = instances.lesser().create().size()
+                    + instances.equal().create().size() - 1
+                    + instances.greater().create().size();
+
+            // then:
+            assertTrue(kept > 3);
+        }
+
+        @Test
+        public void should_create_instances_passing_verification() {
+            // given:
+            final CoverageGuidedInstances<BranchRecording> instances =
+                    new CoverageGuidedInstances<BranchRecording>(BranchRecording.class, GENERATOR, RECORDED_BRANCHES)
+                            .candidates(100);
+
+            // when:
+            ComparableVerifier
+                    .forInstances(instances.lesser(), instances.equal(), instances.greater())
+                    .verify();
+
+            // then:
+            final List<BranchRecording> equal = instances.equal().create();
+            assertEquals(equal.get(0), equal.get(1));
+            assertNotSame(equal.get(0), equal.get(1));
+        }
+
+        @Test
+        public void should_collect_jacoco_probes_apart_from_the_agent() {
+            // given:
+            final JacocoCoverage coverage = JacocoCoverage.forClass(JacocoInstrumented.class);
+            JacocoInstrumented.AGENT_PROBES[2] = true;
+            new JacocoInstrumented(0).compareTo(new JacocoInstrumented(0));
+
+            // when:
+            coverage.start();
+            new JacocoInstrumented(0).compareTo(new JacocoInstrumented(1));
+            final BitSet lesser = coverage.covered();
+            coverage.reset();
+            new JacocoInstrumented(1).compareTo(new JacocoInstrumented(1));
+            final BitSet equal = coverage.covered();
+            new JacocoInstrumented(2).compareTo(new JacocoInstrumented(1));
+            final boolean[] agentWhileCollecting = JacocoInstrumented.AGENT_PROBES.clone();
+            coverage.stop();
+
+            // then:
+            final BitSet expectedLesser = new BitSet();
+            expectedLesser.set(0);
+            final BitSet expectedEqual = new BitSet();
+            expectedEqual.set(2);
+            assertEquals(expectedLesser, lesser);
+            assertEquals(expectedEqual, equal);
+            assertTrue(Arrays.equals(new boolean[]{true, false, true}, agentWhileCollecting));
+            assertTrue(Arrays.equals(new boolean[]{true, true, true}, JacocoInstrumented.AGENT_PROBES));
+        }
+
+        @Test
+        public void should_throw_exception_without_jacoco_agent() {
+            // given:
+            Assume.assumeTrue(null == JacocoCoverage.forClass(BranchRecording.class));
+
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("requires the JVM to run with the JaCoCo agent!");
+
+            // when:
+            VerificationInstancesCreators
+                    .coverageGuided(BranchRecording.class, GENERATOR)
+                    .lesser()
+                    .create();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.discovery.broken;
+
+import org.artrev.compareverifier.EqualInstances;
+import org.artrev.compareverifier.GreaterInstances;
+import org.artrev.compareverifier.LesserInstances;
+
+import java.util.Arrays;
+import java.util.List;
+
+// the factories put the instances in the opposite order
+public final class Reversed implements Comparable<Reversed> {
+    private final int value;
+
+    public Reversed(final int value) {
+        this.value = value;
+    }
+
+    @LesserInstances
+    static List<Reversed> lesser() {
+        return Arrays.asList(new Reversed(10));
+    }
+
+    @EqualInstances
+    static List<Reversed> equal() {
+        return Arrays.asList(new Reversed(5), new Reversed(5));
+    }
+
+    @GreaterInstances
+    static List<Reversed> greater() {
+        return Arrays.asList(new Reversed(0));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Reversed && value == ((Reversed) other).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public int compareTo(final Reversed other) {
+        return value - other.value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Reversed{ value = %d }", value);
+    }
+}
@@ -0,0 +1,30 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.discovery.unverified;
+
+// Comparable without any instance factories
+public final class Plain implements Comparable<Plain> {
+    private final int value;
+
+    public Plain(final int value) {
+        this.value = value;
+    }
+
+    @Override
+    public int compareTo(final Plain other) {
+        return value - other.value;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.discovery.valid;
+
+import org.artrev.compareverifier.EqualInstances;
+import org.artrev.compareverifier.GreaterInstances;
+import org.artrev.compareverifier.LesserInstances;
+
+import java.util.Arrays;
+import java.util.List;
+
+// supplies its own instances for the discovery
+public final class Money implements Comparable<Money> {
+    private final long cents;
+
+    public Money(final long cents) {
+        this.cents = cents;
+    }
+
+    @LesserInstances
+    static List<Money> lesser() {
+        return Arrays.asList(new Money(0), new Money(99));
+    }
+
+    @EqualInstances
+    static List<Money> equal() {
+        return Arrays.asList(new Money(100), new Money(100));
+    }
+
+    @GreaterInstances
+    static List<Money> greater() {
+        return Arrays.asList(new Money(101), new Money(10000));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+
+        if (null == other || getClass() != other.getClass())
+            return false;
+
+        return cents == ((Money) other).cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (cents ^ (cents >>> 32));
+    }
+
+    @Override
+    public int compareTo(final Money other) {
+        return cents < other.cents ? -1 : (cents == other.cents ? 0 : 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Money{ cents = %d }", cents);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.discovery.valid;
+
+import org.artrev.compareverifier.EqualInstances;
+import org.artrev.compareverifier.GreaterInstances;
+import org.artrev.compareverifier.LesserInstances;
+import org.artrev.compareverifier.VerificationInstancesCreator;
+import org.artrev.compareverifier.VerificationInstancesCreators;
+
+// supplies the instances of a type declared elsewhere
+public final class VersionFixtures {
+    private VersionFixtures() {
+    }
+
+    @LesserInstances(Version.class)
+    public static VerificationInstancesCreator<Version> lesser() {
+        return VerificationInstancesCreators.from(new Version(1), new Version(2));
+    }
+
+    @EqualInstances(Version.class)
+    public static VerificationInstancesCreator<Version> equal() {
+        return VerificationInstancesCreators.from(new Version(3), new Version(3));
+    }
+
+    @GreaterInstances(Version.class)
+    public static VerificationInstancesCreator<Version> greater() {
+        return VerificationInstancesCreators.from(new Version(4));
+    }
+}
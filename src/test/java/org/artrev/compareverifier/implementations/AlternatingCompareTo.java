@@ -0,0 +1,39 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+// the order of instances greater than 50 alternates on every call,
+// so each direction of a pair looks fine when compared only once
+public class AlternatingCompareTo extends Correct {
+    private int calls = 0;
+
+    public AlternatingCompareTo(final int value) {
+        super(value);
+    }
+
+    @Override
+    public int compareTo(final Correct other) {
+        calls++;
+        if (value > 50 && other.value > 50 && value != other.value && calls % 2 == 0)
+            return -super.compareTo(other);
+        return super.compareTo(other);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AlternatingCompareTo{ value = %d }", value);
+    }
+}
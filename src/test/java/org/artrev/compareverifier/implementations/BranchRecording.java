@@ -0,0 +1,92 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+import java.util.BitSet;
+
+// records the branches of compareTo taken so far, standing in for a coverage agent
+public final class BranchRecording implements Comparable<BranchRecording> {
+    private static final BitSet BRANCHES = new BitSet();
+
+    public final int major;
+    public final int minor;
+    public final int patch;
+
+    public BranchRecording(final int major, final int minor, final int patch) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+    }
+
+    public static BitSet branches() {
+        synchronized (BRANCHES) {
+            return (BitSet) BRANCHES.clone();
+        }
+    }
+
+    public static void recordBranches(final BitSet branches) {
+        synchronized (BRANCHES) {
+            BRANCHES.or(branches);
+        }
+    }
+
+    public static void resetBranches() {
+        synchronized (BRANCHES) {
+            BRANCHES.clear();
+        }
+    }
+
+    private static int taken(final int branch, final int result) {
+        synchronized (BRANCHES) {
+            BRANCHES.set(branch);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+
+        if (null == other || getClass() != other.getClass())
+            return false;
+
+        final BranchRecording that = (BranchRecording) other;
+
+        return major == that.major && minor == that.minor && patch == that.patch;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * major + minor) + patch;
+    }
+
+    @Override
+    public int compareTo(final BranchRecording other) {
+        if (major != other.major)
+            return taken(0, major < other.major ? -1 : 1);
+        if (minor != other.minor)
+            return taken(1, minor < other.minor ? -1 : 1);
+        if (patch != other.patch)
+            return taken(2, patch < other.patch ? -1 : 1);
+        return taken(3, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BranchRecording{ %d.%d.%d }", major, minor, patch);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+// keeps its probes like a class instrumented by the JaCoCo agent, standing in for it
+public final class JacocoInstrumented implements Comparable<JacocoInstrumented> {
+    // probes the agent would hand out on the first initialization
+    public static final boolean[] AGENT_PROBES = new boolean[3];
+
+    @SuppressWarnings("unused")
+    private static transient boolean[] $jacocoData;
+
+    public final int value;
+
+    public JacocoInstrumented(final int value) {
+        this.value = value;
+    }
+
+    private static boolean[] $jacocoInit() {
+        boolean[] probes = $jacocoData;
+        if (null == probes)
+            probes = $jacocoData = AGENT_PROBES;
+        return probes;
+    }
+
+    @Override
+    public int compareTo(final JacocoInstrumented other) {
+        final boolean[] probes = $jacocoInit();
+        if (value < other.value) {
+            probes[0] = true;
+            return -1;
+        }
+        if (value > other.value) {
+            probes[1] = true;
+            return 1;
+        }
+        probes[2] = true;
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JacocoInstrumented{ value = %d }", value);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+// lazily caches the sort key without synchronization, the flag is set
+// before the key so other threads can observe a missing key
+public class RacyCachedKey extends Correct {
+    private boolean computed = false;
+    private int key = 0;
+
+    public RacyCachedKey(final int value) {
+        super(value);
+    }
+
+    private int key() {
+        if (!computed) {
+            computed = true;
+            try {
+                // widens the window in which the key is missing
+                Thread.sleep(5);
+            } catch (final InterruptedException exc) {
+                Thread.currentThread().interrupt();
+            }
+            key = value;
+        }
+        return key;
+    }
+
+    @Override
+    public int compareTo(final Correct other) {
+        final int otherKey = other instanceof RacyCachedKey ? ((RacyCachedKey) other).key() : other.value;
+        return key() - otherKey;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RacyCachedKey{ value = %d }", value);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+// value class ordered by major and then by minor version
+public final class SemanticVersion implements Comparable<SemanticVersion> {
+    public final int major;
+    public final int minor;
+
+    private SemanticVersion(final int major, final int minor) {
+        this.major = major;
+        this.minor = minor;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+
+        if (null == other || getClass() != other.getClass())
+            return false;
+
+        final SemanticVersion that = (SemanticVersion) other;
+
+        return major == that.major && minor == that.minor;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * major + minor;
+    }
+
+    @Override
+    public int compareTo(final SemanticVersion other) {
+        if (major != other.major)
+            return major < other.major ? -1 : 1;
+        return minor < other.minor ? -1 : (minor == other.minor ? 0 : 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SemanticVersion{ %d.%d }", major, minor);
+    }
+}
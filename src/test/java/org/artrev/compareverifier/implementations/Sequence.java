@@ -0,0 +1,65 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+import java.util.Arrays;
+
+// compares the values lexicographically, which walks the whole
+// array for equal sequences, so compareTo is O(n) in the length
+public class Sequence implements Comparable<Sequence> {
+    private final int[] values;
+
+    public Sequence(final int... values) {
+        this.values = values.clone();
+    }
+
+    public static Sequence ofLength(final int length, final int value) {
+        final int[] values = new int[length];
+        Arrays.fill(values, value);
+        return new Sequence(values);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other)
+            return true;
+
+        if (null == other || getClass() != other.getClass())
+            return false;
+
+        return Arrays.equals(values, ((Sequence) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public int compareTo(final Sequence other) {
+        final int length = Math.min(values.length, other.values.length);
+        for (int index = 0; index < length; index++) {
+            if (values[index] != other.values[index])
+                return values[index] < other.values[index] ? -1 : 1;
+        }
+        return values.length - other.values.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Sequence{ values = " + Arrays.toString(values) + " }";
+    }
+}
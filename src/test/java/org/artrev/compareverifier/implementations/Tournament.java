@@ -0,0 +1,40 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+// every pair of values is ordered by a fixed coin flip, the order is
+// antisymmetric but not transitive
+public class Tournament extends Correct {
+    public Tournament(final int value) {
+        super(value);
+    }
+
+    @Override
+    public int compareTo(final Correct other) {
+        if (value == other.value)
+            return 0;
+        final int low = Math.min(value, other.value);
+        final int high = Math.max(value, other.value);
+        final int flip = (low * 31 + high) * 0x9E3779B9 >>> 31;
+        final int sign = flip == 0 ? -1 : 1;
+        return value == low ? sign : -sign;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tournament{ value = %d }", value);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+  Copyright (c) 2020-present, CompareVerifier Contributors.
+
+  Licensed under the Apache License, Version 2.0 (the "License"); you may not
+  use this file except in compliance with the License. You may obtain a copy
+  of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+  WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+  License for the specific language governing permissions and limitations
+  under the License.
+ */
+package org.artrev.compareverifier.implementations;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// behaves correctly for the first calls and treats all instances as
+// equal afterwards, like a compareTo that is broken only once compiled
+public class UnstableCompareTo extends Correct {
+    private static final long CORRECT_CALLS = 10000L;
+
+    private final AtomicLong calls;
+
+    public UnstableCompareTo(final int value, final AtomicLong calls) {
+        super(value);
+        this.calls = calls;
+    }
+
+    @Override
+    public int compareTo(final Correct other) {
+        if (calls.incrementAndGet() > CORRECT_CALLS)
+            return 0;
+        return super.compareTo(other);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UnstableCompareTo{ value = %d }", value);
+    }
+}